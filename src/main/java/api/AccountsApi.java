@@ -0,0 +1,139 @@
+package api;
+
+import api.model.Account;
+import api.model.JsonFields;
+import utils.ConfigReader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saldos das contas pela API e top-up antes dos cenários de transferência.
+ *
+ * O top-up tenta primeiro mover dinheiro das outras contas do próprio utilizador (ex.: a
+ * Savings que os cenários de transferência vão enchendo) e só depois, se API_DEPOSIT_PATH
+ * estiver configurado, faz um depósito. Os endpoints não estão documentados pela app, por
+ * isso são todos configuráveis: API_ACCOUNTS_PATH, API_TRANSFER_PATH, API_DEPOSIT_PATH.
+ */
+public class AccountsApi {
+
+    private static final String DEFAULT_ACCOUNTS_PATH = "/api/accounts";
+    private static final String DEFAULT_TRANSFER_PATH = "/api/transactions/transfer";
+
+    private static final List<String> LIST_FIELDS = List.of("accounts", "data", "items");
+
+    public static String url() {
+        return ApiClient.url(ConfigReader.getProperty("API_ACCOUNTS_PATH", DEFAULT_ACCOUNTS_PATH));
+    }
+
+    public static List<Account> accounts(AuthApi.Session session) throws IOException, InterruptedException {
+        // lista de contas muda pouco: vem da ResponseCache (as transferências invalidam-na)
+        return parseAccounts(ApiClient.getCached(url(), session));
+    }
+
+    /** Saldo por nome de conta ("checking" -> 1500.00). */
+    public static Map<String, BigDecimal> balances(AuthApi.Session session) throws IOException, InterruptedException {
+        Map<String, BigDecimal> balances = new HashMap<>();
+        for (Account account : accounts(session)) {
+            balances.put(account.name(), account.balance());
+        }
+        return balances;
+    }
+
+    /**
+     * Garante que a conta tem pelo menos minimum de saldo; devolve o saldo final.
+     * IOException se não for possível chegar ao mínimo.
+     */
+    public static BigDecimal ensureBalance(String email, String password, String accountName, BigDecimal minimum)
+            throws IOException, InterruptedException {
+        return ensureBalance(email, password, accountName, minimum, List.of());
+    }
+
+    /**
+     * Como {@link #ensureBalance(String, String, String, BigDecimal)}, mas sem tirar dinheiro das
+     * contas em untouched (ex.: as que o cenário vai verificar); o que faltar só vem de depósito.
+     */
+    public static BigDecimal ensureBalance(String email, String password, String accountName, BigDecimal minimum,
+                                           Collection<String> untouched) throws IOException, InterruptedException {
+        AuthApi.Session session = AuthApi.login(email, password);
+        List<Account> accounts = accounts(session);
+        Account target = find(accounts, accountName);
+        if (target.balance().compareTo(minimum) >= 0) {
+            return target.balance();
+        }
+
+        BigDecimal missing = minimum.subtract(target.balance());
+        System.out.printf("[AccountsApi] %s: %s has %s, topping up %s%n", email, target.name(), target.balance(), missing);
+
+        // 1) das outras contas do utilizador, a mais cheia primeiro
+        List<Account> sources = new ArrayList<>(accounts);
+        sources.remove(target);
+        sources.removeIf(source -> untouched.stream().anyMatch(name -> source.name().contains(name.trim().toLowerCase())));
+        sources.sort(Comparator.comparing(Account::balance).reversed());
+        for (Account source : sources) {
+            if (missing.signum() <= 0) break;
+            if (source.balance().signum() <= 0) continue;
+            BigDecimal amount = source.balance().min(missing);
+            transfer(session, source, target, amount);
+            missing = missing.subtract(amount);
+        }
+
+        // 2) depósito, se a app o permitir
+        String depositPath = ConfigReader.getProperty("API_DEPOSIT_PATH");
+        if (missing.signum() > 0 && depositPath != null && !depositPath.isBlank()) {
+            post(session, depositPath, Map.of("account", target.id(), "amount", missing));
+        }
+
+        BigDecimal now = find(accounts(session), accountName).balance();
+        if (now.compareTo(minimum) < 0) {
+            throw new IOException(String.format("Could not fund %s for %s: balance %s < %s (set API_DEPOSIT_PATH to allow deposits)",
+                    accountName, email, now, minimum));
+        }
+        return now;
+    }
+
+    public static void transfer(AuthApi.Session session, Account from, Account to, BigDecimal amount)
+            throws IOException, InterruptedException {
+        post(session, ConfigReader.getProperty("API_TRANSFER_PATH", DEFAULT_TRANSFER_PATH), Map.of(
+                "from", from.id(),
+                "to", to.id(),
+                "amount", amount));
+    }
+
+    private static void post(AuthApi.Session session, String path, Map<String, Object> body)
+            throws IOException, InterruptedException {
+        String url = ApiClient.url(path);
+        HttpResponse<String> response = ApiClient.postWithSession(url, body, session);
+        if (response.statusCode() >= 400) {
+            throw new IOException("POST " + url + " failed: HTTP " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private static Account find(List<Account> accounts, String name) throws IOException {
+        String wanted = name.trim().toLowerCase();
+        return accounts.stream()
+                .filter(a -> a.name().equals(wanted) || a.name().contains(wanted))
+                .findFirst()
+                .orElseThrow(() -> new IOException("No '" + name + "' account in " + accounts));
+    }
+
+    // lista direta, ou dentro de "accounts"/"data"/"items"
+    static List<Account> parseAccounts(byte[] body) throws IOException {
+        return ApiClient.readList(ApiClient.parser(body), LIST_FIELDS, Account::read);
+    }
+
+    /** Números JSON ou texto formatado ("10.000,00 €", "1,000.50"). */
+    public static BigDecimal toAmount(Object value) {
+        if (value instanceof Number n) {
+            return new BigDecimal(n.toString());
+        }
+        return JsonFields.parseAmount(value.toString());
+    }
+}
@@ -3,23 +3,56 @@ package api;
 
 import java.net.http.*;
 import java.net.URI;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.http.HttpRequest.BodyPublishers;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.cdimascio.dotenv.Dotenv;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 public class ApiClient {
-    private static final HttpClient client = HttpClient.newHttpClient();
+    // protocolo, timeouts, limite de pedidos e executor (omissão virtual threads): ver ApiClientConfig
+    private static final Executor executor = ApiClientConfig.executor();
+    private static final HttpClient client = ApiClientConfig.newClient(executor);
+    private static final Semaphore inFlight = ApiClientConfig.concurrencyLimit();
+    private static final ResponseCache cache = new ResponseCache();
+    private static final Hedging hedging = new Hedging();
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    // Resultado de um item de batch(): value ou error (nunca os dois)
+    public record BatchResult<T, R>(T item, R value, Throwable error) {
+        public boolean isOk() {
+            return error == null;
+        }
+    }
+
 
     // Credenciais para Basic Auth
     static Dotenv dotenv = Dotenv.load();
     private static final String USER = dotenv.get("USER");  //"testing@example.com";
     private static final String PASSWORD = dotenv.get("PASSWORD"); //"testingPassword!1";
+    private static final String BASE_URL = dotenv.get("BASE_URL");
 
 
     // Método para gerar o header Authorization
@@ -32,30 +65,444 @@ public class ApiClient {
 
     // Generic GET method
     public static String get(String url) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
+        HttpRequest request = request(url)
                 .header("Authorization", getBasicAuthHeader())
                 .GET()
                 .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = sendGet(request, HttpResponse.BodyHandlers.ofString());
         return response.body();
     }
 
     // Generic POST method with JSON body
     public static String post(String url, Map<String, Object> body) throws IOException, InterruptedException {
         String jsonBody = mapper.writeValueAsString(body);
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
+        HttpRequest request = request(url)
                 .header("Content-Type", "application/json")
                 .header("Authorization", getBasicAuthHeader())
                 .POST(BodyPublishers.ofString(jsonBody))
                 .build();
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        try {
+            return send(request).body();
+        } finally {
+            // Basic auth não tem GETs em cache: só invalida o recurso (mesmo que o pedido falhe)
+            cache.invalidate(url);
+        }
+    }
+
+    // GET assíncrono (futuro com o corpo da resposta)
+    public static CompletableFuture<String> getAsync(String url) {
+        HttpRequest request = request(url)
+                .header("Authorization", getBasicAuthHeader())
+                .GET()
+                .build();
+        return sendAsync(request).thenApply(HttpResponse::body);
+    }
+
+    // POST assíncrono com JSON body (futuro com o corpo da resposta)
+    public static CompletableFuture<String> postAsync(String url, Map<String, Object> body) {
+        String jsonBody;
+        try {
+            jsonBody = mapper.writeValueAsString(body);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        HttpRequest request = request(url)
+                .header("Content-Type", "application/json")
+                .header("Authorization", getBasicAuthHeader())
+                .POST(BodyPublishers.ofString(jsonBody))
+                .build();
+        return sendAsync(request)
+                .whenComplete((response, error) -> cache.invalidate(url))
+                .thenApply(HttpResponse::body);
+    }
+
+    /*
+     * Corre call para todos os itens com no máximo maxConcurrency pedidos em voo.
+     * Devolve um resultado por item (mesma ordem), com o valor ou o erro desse item:
+     * uma falha não cancela os restantes.
+     */
+    public static <T, R> List<BatchResult<T, R>> batch(List<T> items, int maxConcurrency,
+                                                       Function<T, CompletableFuture<R>> call) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(Math.max(1, maxConcurrency));
+        List<CompletableFuture<BatchResult<T, R>>> pending = new ArrayList<>(items.size());
+        for (T item : items) {
+            inFlight.acquire();
+            CompletableFuture<R> future;
+            try {
+                future = call.apply(item);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            pending.add(future.handle((value, error) -> {
+                inFlight.release();
+                return new BatchResult<>(item, error == null ? value : null, unwrap(error));
+            }));
+        }
+        return pending.stream().map(CompletableFuture::join).toList();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    // POST sem Basic Auth que devolve a resposta completa (status + headers, ex.: Set-Cookie do login)
+    public static HttpResponse<String> postAnonymous(String url, Map<String, Object> body) throws IOException, InterruptedException {
+        String jsonBody = mapper.writeValueAsString(body);
+        HttpRequest request = request(url)
+                .header("Content-Type", "application/json")
+                .POST(BodyPublishers.ofString(jsonBody))
+                .build();
+        return send(request);
+    }
+
+    // GET autenticado com a sessão do utilizador (cookies e/ou Bearer token do login)
+    public static HttpResponse<String> getWithSession(String url, AuthApi.Session session) throws IOException, InterruptedException {
+        return getWithSession(url, session, null);
+    }
+
+    // GET condicional: com o ETag da resposta anterior a API pode devolver 304 sem corpo
+    public static HttpResponse<String> getWithSession(String url, AuthApi.Session session, String etag) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = request(url)
+                .GET();
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        return sendGet(withSession(builder, session).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // GET condicional com o corpo em bytes (para guardar em cache e decodificar sem passar por String)
+    public static HttpResponse<byte[]> getBytesWithSession(String url, AuthApi.Session session, String etag) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = request(url)
+                .GET();
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+        return sendGet(withSession(builder, session).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    // GETs servidos pela ResponseCache (hits + 304) desde o arranque
+    public static long servedFromCache() {
+        return cache.served();
+    }
+
+    // GET com cache (ResponseCache, TTL da configuração); HTTP >= 400 -> IOException
+    public static byte[] getCached(String url, AuthApi.Session session) throws IOException, InterruptedException {
+        return getCached(url, session, cache.ttl());
+    }
+
+    /*
+     * GET com cache: uma resposta guardada há menos de maxAge é usada sem ir à rede; mais
+     * antiga é revalidada com o ETag (304 reaproveita o corpo). Duration.ZERO = revalida sempre
+     * (polling de saldos: cada leitura tem de refletir o servidor).
+     */
+    public static byte[] getCached(String url, AuthApi.Session session, Duration maxAge) throws IOException, InterruptedException {
+        String key = ResponseCache.key(url, identity(session));
+        ResponseCache.Entry cached = cache.get(key);
+        if (cached != null && cached.isFresh(maxAge)) {
+            cache.hit(cached);
+            return cached.body();
+        }
+
+        HttpResponse<byte[]> response = getBytesWithSession(url, session, cached == null ? null : cached.etag());
+        if (response.statusCode() == 304 && cached != null) {
+            cache.revalidated(key, cached);
+            return cached.body();
+        }
+        cache.miss();
+        if (response.statusCode() != 200) {
+            cache.remove(key);
+            if (response.statusCode() >= 400) {
+                throw new IOException("GET " + url + " failed: HTTP " + response.statusCode());
+            }
+            return response.body();
+        }
+        cache.put(key, response.headers().firstValue("etag").orElse(null), response.body());
         return response.body();
     }
 
+    // GET autenticado com o corpo em stream (para decoders JSON que leem direto dos bytes)
+    public static HttpResponse<InputStream> getStreamWithSession(String url, AuthApi.Session session) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = request(url)
+                .GET();
+        return sendGet(withSession(builder, session).build(), HttpResponse.BodyHandlers.ofInputStream());
+    }
+
+    // POST autenticado com a sessão do utilizador
+    public static HttpResponse<String> postWithSession(String url, Map<String, Object> body, AuthApi.Session session) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = request(url)
+                .header("Content-Type", "application/json")
+                .POST(BodyPublishers.ofString(mapper.writeValueAsString(body)));
+        try {
+            return send(withSession(builder, session).build());
+        } finally {
+            cache.invalidate(url, identity(session));
+        }
+    }
+
+    // DELETE autenticado com a sessão do utilizador
+    public static HttpResponse<String> deleteWithSession(String url, Map<String, Object> body, AuthApi.Session session) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = request(url)
+                .header("Content-Type", "application/json")
+                .method("DELETE", BodyPublishers.ofString(mapper.writeValueAsString(body)));
+        try {
+            return send(withSession(builder, session).build());
+        } finally {
+            cache.invalidate(url, identity(session));
+        }
+    }
+
+    private static HttpRequest.Builder request(String url) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .timeout(ApiClientConfig.requestTimeout());
+    }
+
+    // Todos os pedidos passam aqui: limite de pedidos em voo e métricas por endpoint (ApiMetrics)
+    private static HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Com corpo em stream a latência medida é até aos headers (o corpo é lido por quem chama)
+    private static <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        if (inFlight != null) inFlight.acquire();
+        String endpoint = ApiMetrics.endpoint(request);
+        long start = ApiMetrics.start();
+        try {
+            HttpResponse<T> response = client.send(request, handler);
+            ApiMetrics.record(endpoint, start, response);
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            ApiMetrics.recordError(endpoint, start, e);
+            throw e;
+        } finally {
+            if (inFlight != null) inFlight.release();
+        }
+    }
+
+    // Versão assíncrona: a espera pela vaga (se houver limite) corre no executor, não em quem chama
+    private static CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request) {
+        return sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        CompletableFuture<Void> permit = inFlight == null
+                ? CompletableFuture.completedFuture(null)
+                : CompletableFuture.runAsync(inFlight::acquireUninterruptibly, executor);
+        String endpoint = ApiMetrics.endpoint(request);
+        return permit.thenCompose(ignored -> {
+            long start = ApiMetrics.start();
+            CompletableFuture<HttpResponse<T>> sent;
+            try {
+                sent = client.sendAsync(request, handler);
+            } catch (RuntimeException e) {
+                // sendAsync pode falhar logo (pedido inválido, cliente fechado): devolve a vaga na mesma
+                if (inFlight != null) inFlight.release();
+                ApiMetrics.recordError(endpoint, start, e);
+                throw e;
+            }
+            return sent
+                    .whenComplete((response, error) -> {
+                        if (inFlight != null) inFlight.release();
+                        if (error != null) ApiMetrics.recordError(endpoint, start, unwrap(error));
+                        else ApiMetrics.record(endpoint, start, response);
+                    });
+        });
+    }
+
+    /*
+     * GETs síncronos (idempotentes): timeout adaptativo e hedging, se ligados (ver Hedging).
+     * Sem nenhum dos dois é igual ao send() normal.
+     */
+    private static <T> HttpResponse<T> sendGet(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException, InterruptedException {
+        if (!hedging.isActive()) {
+            return send(request, handler);
+        }
+        String endpoint = ApiMetrics.endpoint(request);
+        Duration timeout = hedging.timeout(endpoint);
+        HttpRequest get = timeout == null ? request : HttpRequest.newBuilder(request, (name, value) -> true).timeout(timeout).build();
+
+        long delay = hedging.hedgeDelayMillis(endpoint);
+        if (delay >= 0) {
+            return hedged(get, handler, endpoint, delay);
+        }
+        long start = System.nanoTime();
+        try {
+            return send(get, handler);
+        } finally {
+            hedging.observe(endpoint, System.nanoTime() - start);
+        }
+    }
+
+    // Primeiro pedido; se passar de delayMillis sai um segundo igual e fica o que responder primeiro
+    private static <T> HttpResponse<T> hedged(HttpRequest request, HttpResponse.BodyHandler<T> handler, String endpoint,
+                                              long delayMillis) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<T>> primary = observed(request, handler, endpoint);
+        try {
+            return primary.get(delayMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // mais lento do que o percentil: segue para o hedge
+        } catch (ExecutionException e) {
+            throw asIOException(e.getCause());
+        }
+        if (!hedging.tryFire()) {
+            return await(primary);
+        }
+
+        CompletableFuture<HttpResponse<T>> backup = observed(request, handler, endpoint);
+        CompletableFuture<HttpResponse<T>> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        BiConsumer<HttpResponse<T>, Throwable> race = (response, error) -> {
+            if (error == null) winner.complete(response);
+            else if (failures.incrementAndGet() == 2) winner.completeExceptionally(error);
+        };
+        primary.whenComplete(race);
+        backup.whenComplete(race);
+
+        HttpResponse<T> response = await(winner);
+        long elapsed = System.nanoTime() - start;
+        boolean backupWon = backup.isDone() && !backup.isCompletedExceptionally() && backup.join() == response;
+        if (backupWon) hedging.hedgeWon();
+
+        // o perdedor acaba em background: fecha-se o corpo (streams) e mede-se quanto o hedge poupou
+        (backupWon ? primary : backup).whenComplete((late, error) -> {
+            if (late != null && late.body() instanceof Closeable body) {
+                try {
+                    body.close();
+                } catch (IOException ignore) {
+                    // já fechado
+                }
+            }
+            if (backupWon) hedging.saved(System.nanoTime() - start - elapsed);
+        });
+        return response;
+    }
+
+    private static <T> CompletableFuture<HttpResponse<T>> observed(HttpRequest request, HttpResponse.BodyHandler<T> handler, String endpoint) {
+        long start = System.nanoTime();
+        return sendAsync(request, handler).whenComplete((response, error) -> hedging.observe(endpoint, System.nanoTime() - start));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw asIOException(e.getCause());
+        }
+    }
+
+    private static IOException asIOException(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof IOException io) return io;
+        if (cause instanceof RuntimeException runtime) throw runtime;
+        return new IOException(cause);
+    }
+
+    /*
+     * Identidade para a cache: o utilizador (email do login), não a sessão. Cada ensureBalance /
+     * ApiVerifier faz um login novo, por isso com o token/cookies na chave nunca havia hits;
+     * dois utilizadores continuam sem partilhar entradas.
+     */
+    private static String identity(AuthApi.Session session) {
+        if (session.email() != null) {
+            return "user:" + session.email().trim().toLowerCase(Locale.ROOT);
+        }
+        if (session.token() != null) {
+            return "bearer:" + session.token();
+        }
+        return "cookie:" + session.cookies().stream()
+                .map(c -> c.getName() + "=" + c.getValue())
+                .collect(Collectors.joining("; "));
+    }
+
+    private static HttpRequest.Builder withSession(HttpRequest.Builder builder, AuthApi.Session session) {
+        if (!session.cookies().isEmpty()) {
+            builder.header("Cookie", session.cookies().stream()
+                    .map(c -> c.getName() + "=" + c.getValue())
+                    .collect(Collectors.joining("; ")));
+        }
+        if (session.token() != null) {
+            builder.header("Authorization", "Bearer " + session.token());
+        }
+        return builder;
+    }
+
+    // URL absoluto a partir de um path da API (ex.: "/api/users/login") e do BASE_URL do .env
+    public static String url(String path) {
+        String base = BASE_URL == null ? "https://monetis-delta.vercel.app/" : BASE_URL;
+        return base.replaceAll("/+$", "") + "/" + path.replaceAll("^/+", "");
+    }
+
+    // Decoder de um objeto JSON: recebe o parser no START_OBJECT e tem de o deixar no END_OBJECT
+    @FunctionalInterface
+    public interface JsonReader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    public static JsonParser parser(InputStream in) throws IOException {
+        return mapper.getFactory().createParser(in);
+    }
+
+    public static JsonParser parser(byte[] json) throws IOException {
+        return mapper.getFactory().createParser(json);
+    }
+
+    /*
+     * Lê uma lista JSON (direta ou dentro de um dos listFields, ex.: {"data": [...]}) um
+     * elemento de cada vez, sem carregar a resposta toda. visitor devolve false para parar:
+     * o resto do corpo já não é lido. Devolve true se chegou ao fim da lista.
+     */
+    public static <T> boolean readList(JsonParser parser, List<String> listFields, JsonReader<T> reader,
+                                       Predicate<T> visitor) throws IOException {
+        try (parser) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                token = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (value == JsonToken.START_ARRAY && listFields.contains(field)) {
+                        token = value;
+                        break;
+                    }
+                    parser.skipChildren();
+                }
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON list (or an object with one of " + listFields + ")");
+            }
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) throw new IOException("Truncated JSON list");
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    continue;
+                }
+                T item = reader.read(parser);
+                if (item != null && !visitor.test(item)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Lista completa, já tipada
+    public static <T> List<T> readList(JsonParser parser, List<String> listFields, JsonReader<T> reader) throws IOException {
+        List<T> items = new ArrayList<>();
+        readList(parser, listFields, reader, item -> items.add(item));
+        return items;
+    }
+
     // Parse JSON response into Map
     public static Map<String, Object> parseJson(String json) throws IOException {
         return mapper.readValue(json, Map.class);
     }
+
+    // Parse JSON array response into List
+    public static List<Object> parseJsonList(String json) throws IOException {
+        return mapper.readValue(json, List.class);
+    }
 }
@@ -0,0 +1,70 @@
+package api;
+
+import utils.ConfigReader;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Configuração do HttpClient partilhado pelo {@link ApiClient}:
+ *  - API_HTTP_VERSION: HTTP_2 (omissão, com fallback para 1.1 se o servidor não negociar) ou HTTP_1_1
+ *  - API_CONNECT_TIMEOUT_MS (omissão 5000) e API_REQUEST_TIMEOUT_MS (omissão 30000, por pedido)
+ *  - API_MAX_CONCURRENT_REQUESTS: pedidos em voo ao mesmo tempo (omissão 0 = sem limite); o
+ *    HttpClient do JDK não limita ligações HTTP/1.1 abertas, por isso o limite é aplicado aqui
+ *  - API_EXECUTOR_THREADS: 0 (omissão) = virtual threads, N = pool fixo de N threads daemon
+ *
+ * O tamanho do pool de ligações idle e o keep-alive não são configuráveis aqui: o JDK lê
+ * jdk.httpclient.connectionPoolSize / jdk.httpclient.keepalive.timeout em static finals, e o
+ * cliente HTTP do Selenium já os inicializou antes do primeiro pedido à API. Quem precisar deles
+ * passa-os na linha de comando da JVM (argLine do surefire), sabendo que valem também para o Selenium.
+ */
+public class ApiClientConfig {
+
+    private static final int DEFAULT_CONNECT_TIMEOUT_MS = 5_000;
+    private static final int DEFAULT_REQUEST_TIMEOUT_MS = 30_000;
+
+    private ApiClientConfig() {
+    }
+
+    public static HttpClient.Version version() {
+        String value = ConfigReader.getProperty("API_HTTP_VERSION", "HTTP_2").toUpperCase().replace('.', '_');
+        return value.equals("HTTP_1_1") || value.equals("HTTP_1") ? HttpClient.Version.HTTP_1_1 : HttpClient.Version.HTTP_2;
+    }
+
+    public static Duration connectTimeout() {
+        return Duration.ofMillis(ConfigReader.getInt("API_CONNECT_TIMEOUT_MS", DEFAULT_CONNECT_TIMEOUT_MS));
+    }
+
+    public static Duration requestTimeout() {
+        return Duration.ofMillis(ConfigReader.getInt("API_REQUEST_TIMEOUT_MS", DEFAULT_REQUEST_TIMEOUT_MS));
+    }
+
+    /** Limite de pedidos em voo, ou null se não houver limite. */
+    public static Semaphore concurrencyLimit() {
+        int max = ConfigReader.getInt("API_MAX_CONCURRENT_REQUESTS", 0);
+        return max > 0 ? new Semaphore(max) : null;
+    }
+
+    public static Executor executor() {
+        int threads = ConfigReader.getInt("API_EXECUTOR_THREADS", 0);
+        if (threads <= 0) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "api-client");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static HttpClient newClient(Executor executor) {
+        return HttpClient.newBuilder()
+                .version(version())
+                .connectTimeout(connectTimeout())
+                .executor(executor)
+                .build();
+    }
+}
@@ -0,0 +1,245 @@
+package api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import utils.ConfigReader;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas dos pedidos do {@link ApiClient}, por endpoint ("POST /api/users/register"):
+ * histograma de latência, contagem por status HTTP, versão do protocolo negociada (HTTP_2 =
+ * multiplexing) e erros de transporte (timeouts, ligações recusadas). Também guarda o número
+ * de pedidos em voo e o pico da execução.
+ *
+ * O histograma tem buckets exponenciais (1 ms a ~2 min, +25% por bucket), por isso os
+ * percentis têm no máximo ~25% de erro, o que chega para comparar execuções.
+ *
+ * No fim da JVM (shutdown hook, como o resumo do BrowserPool) imprime a tabela e grava
+ * API_METRICS_DIR/api-metrics-&lt;pid&gt;.json (omissão target/api-metrics; um ficheiro por fork).
+ * API_METRICS=false desliga a recolha.
+ */
+public class ApiMetrics {
+
+    private static final String DEFAULT_DIR = "target/api-metrics";
+    private static final double GROWTH = 1.25;
+    private static final double[] BOUNDS_MS = bounds(1, 120_000);
+
+    private static final boolean ENABLED = ConfigReader.getBoolean("API_METRICS", true);
+    private static final Map<String, Endpoint> ENDPOINTS = new ConcurrentHashMap<>();
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+    private static final AtomicInteger PEAK_IN_FLIGHT = new AtomicInteger();
+    private static final AtomicBoolean HOOK_INSTALLED = new AtomicBoolean();
+
+    private static final class Endpoint {
+        final LongAdder[] buckets = new LongAdder[BOUNDS_MS.length + 1];
+        final LongAdder count = new LongAdder();
+        final LongAdder totalMicros = new LongAdder();
+        final AtomicLong maxMicros = new AtomicLong();
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> versions = new ConcurrentHashMap<>();
+        final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        Endpoint() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void observe(long nanos) {
+            long micros = nanos / 1_000;
+            count.increment();
+            totalMicros.add(micros);
+            maxMicros.accumulateAndGet(micros, Math::max);
+            buckets[bucket(micros / 1_000.0)].increment();
+        }
+    }
+
+    private ApiMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /** Chave do endpoint: método + path, com ids (números, uuids, emails) trocados por {id}. */
+    public static String endpoint(String method, URI uri) {
+        String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        StringBuilder key = new StringBuilder(method).append(' ');
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) continue;
+            key.append('/').append(isId(segment) ? "{id}" : segment);
+        }
+        if (path.equals("/")) key.append('/');
+        return key.toString();
+    }
+
+    static String endpoint(HttpRequest request) {
+        return endpoint(request.method(), request.uri());
+    }
+
+    /** Início de um pedido; devolve o instante para o {@link #record}/{@link #recordError}. */
+    static long start() {
+        if (ENABLED) {
+            PEAK_IN_FLIGHT.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+        }
+        return System.nanoTime();
+    }
+
+    static void record(String endpoint, long start, HttpResponse<?> response) {
+        if (!ENABLED) return;
+        IN_FLIGHT.decrementAndGet();
+        Endpoint stats = stats(endpoint);
+        stats.observe(System.nanoTime() - start);
+        stats.statuses.computeIfAbsent(response.statusCode(), k -> new LongAdder()).increment();
+        stats.versions.computeIfAbsent(response.version().name(), k -> new LongAdder()).increment();
+    }
+
+    static void recordError(String endpoint, long start, Throwable error) {
+        if (!ENABLED) return;
+        IN_FLIGHT.decrementAndGet();
+        Endpoint stats = stats(endpoint);
+        stats.observe(System.nanoTime() - start);
+        stats.errors.computeIfAbsent(error.getClass().getSimpleName(), k -> new LongAdder()).increment();
+    }
+
+    /** Número de pedidos medidos para o endpoint (0 se nunca foi chamado). */
+    public static long count(String endpoint) {
+        Endpoint stats = ENDPOINTS.get(endpoint);
+        return stats == null ? 0 : stats.count.sum();
+    }
+
+    /** Percentil (0-100) da latência do endpoint, em ms; -1 sem amostras. */
+    public static double percentileMillis(String endpoint, double percentile) {
+        Endpoint stats = ENDPOINTS.get(endpoint);
+        return stats == null ? -1 : percentile(stats, percentile);
+    }
+
+    /** Imprime a tabela por endpoint e grava o JSON do fork. */
+    public static void export() {
+        if (ENDPOINTS.isEmpty()) return;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("pid", ProcessHandle.current().pid());
+        report.put("peakInFlight", PEAK_IN_FLIGHT.get());
+        Map<String, Object> endpoints = new TreeMap<>();
+        report.put("endpoints", endpoints);
+
+        System.out.println("[ApiMetrics] ============== API calls ==============");
+        System.out.printf("[ApiMetrics] %-40s %6s %8s %8s %8s %8s  %s%n",
+                "endpoint", "calls", "p50 ms", "p95 ms", "p99 ms", "max ms", "status / protocol / errors");
+        new TreeMap<>(ENDPOINTS).forEach((name, stats) -> {
+            long count = stats.count.sum();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("count", count);
+            entry.put("meanMs", count == 0 ? 0 : stats.totalMicros.sum() / 1_000.0 / count);
+            entry.put("p50Ms", percentile(stats, 50));
+            entry.put("p90Ms", percentile(stats, 90));
+            entry.put("p95Ms", percentile(stats, 95));
+            entry.put("p99Ms", percentile(stats, 99));
+            entry.put("maxMs", stats.maxMicros.get() / 1_000.0);
+            entry.put("statuses", sums(stats.statuses));
+            entry.put("versions", sums(stats.versions));
+            entry.put("errors", sums(stats.errors));
+            entry.put("histogramMs", histogram(stats));
+            endpoints.put(name, entry);
+
+            List<String> details = new ArrayList<>();
+            details.add(sums(stats.statuses).toString());
+            details.add(sums(stats.versions).toString());
+            if (!stats.errors.isEmpty()) details.add(sums(stats.errors).toString());
+            System.out.printf("[ApiMetrics] %-40s %6d %8.1f %8.1f %8.1f %8.1f  %s%n", name, count,
+                    percentile(stats, 50), percentile(stats, 95), percentile(stats, 99),
+                    stats.maxMicros.get() / 1_000.0, String.join(" ", details));
+        });
+        System.out.printf("[ApiMetrics] peak in-flight requests: %d%n", PEAK_IN_FLIGHT.get());
+
+        Path dir = Path.of(ConfigReader.getProperty("API_METRICS_DIR", DEFAULT_DIR));
+        Path file = dir.resolve("api-metrics-" + ProcessHandle.current().pid() + ".json");
+        try {
+            Files.createDirectories(dir);
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), report);
+            System.out.println("[ApiMetrics] written to " + file);
+        } catch (IOException e) {
+            System.err.println("[ApiMetrics] Could not write " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static Endpoint stats(String endpoint) {
+        if (HOOK_INSTALLED.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(ApiMetrics::export, "api-metrics-export"));
+        }
+        return ENDPOINTS.computeIfAbsent(endpoint, k -> new Endpoint());
+    }
+
+    private static double percentile(Endpoint stats, double percentile) {
+        long count = stats.count.sum();
+        if (count == 0) return -1;
+        long rank = (long) Math.ceil(count * Math.min(100, Math.max(0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < stats.buckets.length; i++) {
+            seen += stats.buckets[i].sum();
+            if (seen >= Math.max(1, rank)) {
+                // limite superior do bucket, sem passar o máximo observado
+                double upper = i < BOUNDS_MS.length ? BOUNDS_MS[i] : Double.MAX_VALUE;
+                return Math.min(upper, stats.maxMicros.get() / 1_000.0);
+            }
+        }
+        return stats.maxMicros.get() / 1_000.0;
+    }
+
+    private static Map<String, Long> histogram(Endpoint stats) {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < stats.buckets.length; i++) {
+            long n = stats.buckets[i].sum();
+            if (n == 0) continue;
+            histogram.put(i < BOUNDS_MS.length ? String.format("<=%.1f", BOUNDS_MS[i]) : "+inf", n);
+        }
+        return histogram;
+    }
+
+    private static <K extends Comparable<K>> Map<K, Long> sums(Map<K, LongAdder> counters) {
+        Map<K, Long> sums = new TreeMap<>();
+        counters.forEach((k, v) -> sums.put(k, v.sum()));
+        return sums;
+    }
+
+    private static int bucket(double millis) {
+        int low = 0, high = BOUNDS_MS.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BOUNDS_MS[mid] < millis) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    private static double[] bounds(double first, double last) {
+        List<Double> bounds = new ArrayList<>();
+        for (double b = first; b < last * GROWTH; b *= GROWTH) {
+            bounds.add(b);
+        }
+        return bounds.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    private static boolean isId(String segment) {
+        return segment.matches("\\d+")
+                || segment.matches("(?i)[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}")
+                || segment.matches("(?i)[0-9a-f]{16,}")
+                || segment.contains("@");
+    }
+}
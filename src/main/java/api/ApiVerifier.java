@@ -0,0 +1,122 @@
+package api;
+
+import api.model.Account;
+import api.model.Transaction;
+import utils.ConfigReader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Verificações pós-transação pela API em vez do DOM (VERIFY_MODE=api; omissão dom).
+ *
+ * Uma instância por cenário: faz login uma vez, guarda as transações que já existiam
+ * ({@link #snapshotTransactions()}) e depois faz polling curto (VERIFY_POLL_MS, omissão 150)
+ * com GETs condicionais (If-None-Match): enquanto nada muda a API responde 304 sem corpo.
+ *
+ * Com histórico grande (pelo menos VERIFY_STREAM_THRESHOLD transações no snapshot, omissão 1000)
+ * cada mudança obrigava a descarregar a lista toda: aí o polling usa {@link TransactionsApi#find},
+ * que lê em stream e corta a resposta na primeira transação nova.
+ */
+public class ApiVerifier {
+
+    private static final int DEFAULT_POLL_MS = 150;
+    private static final int DEFAULT_STREAM_THRESHOLD = 1_000;
+
+    private final AuthApi.Session session;
+    private final long pollMillis;
+    private final int streamThreshold;
+
+    private final Set<String> knownTransactions = new HashSet<>();
+
+    private ApiVerifier(AuthApi.Session session) {
+        this.session = session;
+        this.pollMillis = ConfigReader.getInt("VERIFY_POLL_MS", DEFAULT_POLL_MS);
+        this.streamThreshold = ConfigReader.getInt("VERIFY_STREAM_THRESHOLD", DEFAULT_STREAM_THRESHOLD);
+    }
+
+    public static boolean isEnabled() {
+        return "api".equalsIgnoreCase(ConfigReader.getProperty("VERIFY_MODE", "dom"));
+    }
+
+    public static ApiVerifier forUser(String email, String password) throws IOException, InterruptedException {
+        return new ApiVerifier(AuthApi.login(email, password));
+    }
+
+    public Map<String, BigDecimal> balances() throws IOException, InterruptedException {
+        Map<String, BigDecimal> balances = new HashMap<>();
+        for (Account account : AccountsApi.parseAccounts(fetch(AccountsApi.url()))) {
+            balances.put(account.name(), account.balance());
+        }
+        return balances;
+    }
+
+    public BigDecimal balance(String accountName) throws IOException, InterruptedException {
+        return lookup(balances(), accountName);
+    }
+
+    /** Guarda as transações atuais: {@link #awaitNewTransaction} só aceita transações que não estejam aqui. */
+    public void snapshotTransactions() throws IOException, InterruptedException {
+        knownTransactions.clear();
+        TransactionsApi.parse(fetch(TransactionsApi.url()))
+                .forEach(tx -> knownTransactions.add(tx.fingerprint()));
+    }
+
+    /** Espera até o saldo da conta ser exatamente expected; devolve o último valor lido. */
+    public BigDecimal awaitBalance(String accountName, BigDecimal expected, Duration timeout)
+            throws IOException, InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        BigDecimal current = balance(accountName);
+        while (expected.compareTo(current) != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(pollMillis);
+            current = balance(accountName);
+        }
+        return current;
+    }
+
+    /**
+     * Espera por uma transação nova com este valor (em absoluto, a API pode guardar débitos
+     * como positivos) e, se category != null, esta categoria.
+     */
+    public boolean awaitNewTransaction(BigDecimal amount, String category, Duration timeout)
+            throws IOException, InterruptedException {
+        String wantedCategory = category == null ? null : category.trim().toLowerCase();
+        Predicate<Transaction> matches = tx ->
+                !knownTransactions.contains(tx.fingerprint())
+                        && tx.amount().abs().compareTo(amount.abs()) == 0
+                        && (wantedCategory == null || wantedCategory.equals(tx.category()));
+
+        boolean stream = knownTransactions.size() >= streamThreshold;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            // para de decodificar na primeira transação que serve
+            boolean found = stream
+                    ? TransactionsApi.find(session, matches).isPresent()
+                    : TransactionsApi.anyMatch(fetch(TransactionsApi.url()), matches);
+            if (found) return true;
+            if (System.nanoTime() >= deadline) return false;
+            Thread.sleep(pollMillis);
+        }
+    }
+
+    /** GET sempre revalidado (ResponseCache com maxAge zero): 304 reaproveita o corpo anterior. */
+    private byte[] fetch(String url) throws IOException, InterruptedException {
+        return ApiClient.getCached(url, session, Duration.ZERO);
+    }
+
+    private static BigDecimal lookup(Map<String, BigDecimal> balances, String accountName) throws IOException {
+        String wanted = accountName.trim().toLowerCase();
+        for (Map.Entry<String, BigDecimal> entry : balances.entrySet()) {
+            if (entry.getKey().equals(wanted) || entry.getKey().contains(wanted)) {
+                return entry.getValue();
+            }
+        }
+        throw new IOException("No '" + accountName + "' account in " + balances.keySet());
+    }
+}
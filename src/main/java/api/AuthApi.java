@@ -0,0 +1,98 @@
+package api;
+
+import api.model.JsonFields;
+import api.model.User;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import utils.ConfigReader;
+
+import java.io.IOException;
+import java.net.HttpCookie;
+import java.nio.charset.StandardCharsets;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+public class AuthApi {
+
+    // Endpoint de login da API Monetis (configurável: API_LOGIN_PATH)
+    private static final String DEFAULT_LOGIN_PATH = "/api/users/login";
+
+    // Campos onde a API pode devolver o token (top-level ou dentro de "data")
+    private static final List<String> TOKEN_FIELDS = List.of("token", "accessToken", "access_token", "jwt");
+
+    /**
+     * Sessão autenticada: email do login, cookies do Set-Cookie e/ou token do corpo da resposta;
+     * user se a API o devolver.
+     */
+    public record Session(String email, List<HttpCookie> cookies, String token, User user) {
+        public boolean isEmpty() {
+            return cookies.isEmpty() && token == null;
+        }
+    }
+
+    // token e utilizador lidos do corpo do login
+    private record LoginBody(String token, User user) {
+    }
+
+    public static Session login(String email, String password) throws IOException, InterruptedException {
+        String url = ApiClient.url(ConfigReader.getProperty("API_LOGIN_PATH", DEFAULT_LOGIN_PATH));
+        HttpResponse<String> response = ApiClient.postAnonymous(url, Map.of(
+                "email", email,
+                "password", password
+        ));
+        if (response.statusCode() >= 400) {
+            throw new IOException("API login failed for " + email + ": HTTP " + response.statusCode());
+        }
+
+        List<HttpCookie> cookies = response.headers().allValues("set-cookie").stream()
+                .flatMap(header -> HttpCookie.parse(header).stream())
+                .toList();
+
+        LoginBody body = readBody(response.body());
+        Session session = new Session(email, cookies, body.token(), body.user());
+        if (session.isEmpty()) {
+            throw new IOException("API login for " + email + " returned neither cookies nor a token");
+        }
+        return session;
+    }
+
+    /** Token (top-level ou dentro de "data") e utilizador ("user" ou "data.user"). */
+    private static LoginBody readBody(String body) {
+        if (body == null || body.isBlank() || !body.trim().startsWith("{")) return new LoginBody(null, null);
+        try (JsonParser parser = ApiClient.parser(body.getBytes(StandardCharsets.UTF_8))) {
+            parser.nextToken();
+            return readObject(parser, true);
+        } catch (IOException ignore) {
+            // corpo não é JSON: fica só com os cookies
+            return new LoginBody(null, null);
+        }
+    }
+
+    private static LoginBody readObject(JsonParser parser, boolean topLevel) throws IOException {
+        String token = null;
+        int tokenRank = -1;
+        User user = null;
+        LoginBody nested = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT && field.equals("user")) {
+                user = User.read(parser);
+            } else if (value == JsonToken.START_OBJECT && topLevel && field.equals("data")) {
+                nested = readObject(parser, false);
+            } else if (value.isStructStart()) {
+                parser.skipChildren();
+            } else if (value == JsonToken.VALUE_STRING && !parser.getText().isBlank()
+                    && JsonFields.better(TOKEN_FIELDS, field, tokenRank)) {
+                token = parser.getText();
+                tokenRank = JsonFields.rank(TOKEN_FIELDS, field);
+            }
+        }
+        if (nested != null) {
+            if (token == null) token = nested.token();
+            if (user == null) user = nested.user();
+        }
+        return new LoginBody(token, user);
+    }
+}
@@ -0,0 +1,97 @@
+package api;
+
+import utils.ConfigReader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registo dos utilizadores criados durante a execução, apagados pela API no fim.
+ *
+ * Quem cria um utilizador chama {@link #record}; na saída da JVM (shutdown hook, tal como
+ * o resumo do BrowserPool) todos são apagados em paralelo com {@link DeleteUser}, com
+ * CLEANUP_CONCURRENCY pedidos ao mesmo tempo (omissão 8) e no máximo
+ * CLEANUP_TIMEOUT_SECONDS (omissão 60). No fim imprime o débito e as falhas.
+ *
+ * CLEANUP_CREATED_USERS=false desliga a limpeza. O DeleteAccount.feature continua a ser
+ * o único teste do fluxo de apagar conta pela UI.
+ */
+public class CreatedUsers {
+
+    private static final int DEFAULT_CONCURRENCY = 8;
+    private static final int DEFAULT_TIMEOUT_SECONDS = 60;
+
+    private static final Queue<Credentials> CREATED = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean HOOK_INSTALLED = new AtomicBoolean();
+
+    public record Credentials(String email, String password) {
+    }
+
+    private CreatedUsers() {
+    }
+
+    public static boolean isEnabled() {
+        return ConfigReader.getBoolean("CLEANUP_CREATED_USERS", true);
+    }
+
+    /** Marca um utilizador criado nesta execução para ser apagado no fim. */
+    public static void record(String email, String password) {
+        if (!isEnabled() || email == null) return;
+        CREATED.add(new Credentials(email, password));
+        if (HOOK_INSTALLED.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(CreatedUsers::deleteAll, "created-users-cleanup"));
+        }
+    }
+
+    /** Apaga (em paralelo) todos os utilizadores registados até agora. */
+    public static void deleteAll() {
+        List<Credentials> users = new ArrayList<>();
+        for (Credentials c; (c = CREATED.poll()) != null; ) {
+            users.add(c);
+        }
+        if (users.isEmpty()) return;
+
+        int concurrency = Math.max(1, ConfigReader.getInt("CLEANUP_CONCURRENCY", DEFAULT_CONCURRENCY));
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, users.size()), r -> {
+            Thread t = new Thread(r, "created-users-delete");
+            t.setDaemon(true);
+            return t;
+        });
+
+        long start = System.nanoTime();
+        List<Future<?>> pending = new ArrayList<>();
+        for (Credentials user : users) {
+            pending.add(executor.submit(() -> {
+                DeleteUser.delete(user.email(), user.password());
+                return null;
+            }));
+        }
+        executor.shutdown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(
+                ConfigReader.getInt("CLEANUP_TIMEOUT_SECONDS", DEFAULT_TIMEOUT_SECONDS));
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            try {
+                pending.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                Throwable cause = e.getCause() == null ? e : e.getCause();
+                failures.add(users.get(i).email() + " (" + cause.getClass().getSimpleName() + ": " + cause.getMessage() + ")");
+                pending.get(i).cancel(true);
+            }
+        }
+
+        long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        int deleted = users.size() - failures.size();
+        System.out.printf("[CreatedUsers] deleted %d/%d users in %d ms (%.1f users/s, concurrency %d), %d failed%n",
+                deleted, users.size(), millis, deleted * 1000.0 / millis, concurrency, failures.size());
+        failures.forEach(f -> System.out.println("[CreatedUsers]   failed: " + f));
+    }
+}
@@ -0,0 +1,24 @@
+package api;
+
+import utils.ConfigReader;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+public class DeleteUser {
+
+    // Endpoint de apagar conta (configurável: API_DELETE_PATH); pede a password, tal como o ecrã de Settings
+    private static final String DEFAULT_DELETE_PATH = "/api/users/delete";
+
+    // Faz login como o próprio utilizador e apaga a conta. HTTP >= 400 -> IOException
+    public static void delete(String email, String password) throws IOException, InterruptedException {
+        AuthApi.Session session = AuthApi.login(email, password);
+
+        String url = ApiClient.url(ConfigReader.getProperty("API_DELETE_PATH", DEFAULT_DELETE_PATH));
+        HttpResponse<String> response = ApiClient.deleteWithSession(url, Map.of("password", password), session);
+        if (response.statusCode() >= 400) {
+            throw new IOException("Delete failed for " + email + ": HTTP " + response.statusCode());
+        }
+    }
+}
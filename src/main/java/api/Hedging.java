@@ -0,0 +1,156 @@
+package api;
+
+import utils.ConfigReader;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hedging de GETs e timeouts adaptativos no {@link ApiClient}, contra a cauda de latência do
+ * backend serverless (cold starts: a maioria das chamadas é rápida, algumas param segundos).
+ *
+ * Guarda as últimas API_LATENCY_WINDOW latências (omissão 200) de cada endpoint:
+ *  - API_HEDGING=true: se um GET passa do percentil API_HEDGE_PERCENTILE (omissão 95) das
+ *    chamadas recentes, sai um segundo pedido igual e fica o que responder primeiro. O atraso
+ *    fica entre API_HEDGE_MIN_DELAY_MS e API_HEDGE_MAX_DELAY_MS, só há hedge depois de
+ *    API_HEDGE_MIN_SAMPLES amostras, e no máximo API_HEDGE_MAX_RATIO dos GETs (omissão 0.1)
+ *    levam hedge, para um backend lento não receber o dobro da carga.
+ *  - API_ADAPTIVE_TIMEOUTS=true: o timeout de cada GET passa a ser o percentil
+ *    API_TIMEOUT_PERCENTILE (omissão 99) x API_TIMEOUT_MULTIPLIER (omissão 3), nunca abaixo
+ *    de API_TIMEOUT_MIN_MS nem acima de API_REQUEST_TIMEOUT_MS. Os POSTs mantêm o timeout
+ *    fixo: cortar uma escrita lenta não garante que não foi aplicada.
+ *
+ * No fim imprime quantos hedges saíram, quantos ganharam e o tempo poupado (medido: o pedido
+ * perdedor termina em background e conta quanto teria demorado).
+ */
+class Hedging {
+
+    private final boolean hedging = ConfigReader.getBoolean("API_HEDGING", false);
+    private final boolean adaptiveTimeouts = ConfigReader.getBoolean("API_ADAPTIVE_TIMEOUTS", false);
+    private final int windowSize = Math.max(10, ConfigReader.getInt("API_LATENCY_WINDOW", 200));
+    private final int minSamples = ConfigReader.getInt("API_HEDGE_MIN_SAMPLES", 20);
+    private final double hedgePercentile = doubleProperty("API_HEDGE_PERCENTILE", 95);
+    private final long minDelayMs = ConfigReader.getInt("API_HEDGE_MIN_DELAY_MS", 50);
+    private final long maxDelayMs = ConfigReader.getInt("API_HEDGE_MAX_DELAY_MS", 3_000);
+    private final double maxRatio = doubleProperty("API_HEDGE_MAX_RATIO", 0.1);
+    private final double timeoutPercentile = doubleProperty("API_TIMEOUT_PERCENTILE", 99);
+    private final double timeoutMultiplier = doubleProperty("API_TIMEOUT_MULTIPLIER", 3);
+    private final long minTimeoutMs = ConfigReader.getInt("API_TIMEOUT_MIN_MS", 2_000);
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private final LongAdder gets = new LongAdder();
+    private final LongAdder fired = new LongAdder();
+    private final LongAdder skippedByBudget = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder savedMicros = new LongAdder();
+    private final LongAdder savedSamples = new LongAdder();
+    private final AtomicBoolean hookInstalled = new AtomicBoolean();
+
+    // últimas latências de um endpoint (buffer circular)
+    private final class Window {
+        final long[] micros = new long[windowSize];
+        int next;
+        int size;
+
+        synchronized void add(long value) {
+            micros[next] = value;
+            next = (next + 1) % micros.length;
+            size = Math.min(size + 1, micros.length);
+        }
+
+        /** Percentil em ms, ou -1 com menos de minSamples amostras. */
+        synchronized double percentileMillis(double percentile) {
+            if (size < Math.max(1, minSamples)) return -1;
+            long[] sorted = Arrays.copyOf(micros, size);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(size * percentile / 100.0) - 1;
+            return sorted[Math.max(0, Math.min(size - 1, index))] / 1_000.0;
+        }
+    }
+
+    boolean isActive() {
+        return hedging || adaptiveTimeouts;
+    }
+
+    void observe(String endpoint, long nanos) {
+        if (!isActive()) return;
+        if (hookInstalled.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::report, "hedging-report"));
+        }
+        windows.computeIfAbsent(endpoint, k -> new Window()).add(nanos / 1_000);
+    }
+
+    /** Timeout para o próximo GET do endpoint, ou null para manter o da configuração. */
+    Duration timeout(String endpoint) {
+        if (!adaptiveTimeouts) return null;
+        Window window = windows.get(endpoint);
+        double p = window == null ? -1 : window.percentileMillis(timeoutPercentile);
+        if (p < 0) return null;
+        long max = ApiClientConfig.requestTimeout().toMillis();
+        long millis = Math.max(minTimeoutMs, Math.min(max, (long) Math.ceil(p * timeoutMultiplier)));
+        return Duration.ofMillis(millis);
+    }
+
+    /** Quanto esperar pelo primeiro pedido antes do hedge; -1 = sem hedge (desligado ou poucas amostras). */
+    long hedgeDelayMillis(String endpoint) {
+        gets.increment();
+        if (!hedging) return -1;
+        Window window = windows.get(endpoint);
+        double p = window == null ? -1 : window.percentileMillis(hedgePercentile);
+        if (p < 0) return -1;
+        return Math.max(minDelayMs, Math.min(maxDelayMs, (long) Math.ceil(p)));
+    }
+
+    /** O primeiro pedido passou do limite: true se ainda há orçamento para o hedge. */
+    boolean tryFire() {
+        if (fired.sum() + 1 > Math.max(1, gets.sum() * maxRatio)) {
+            skippedByBudget.increment();
+            return false;
+        }
+        fired.increment();
+        return true;
+    }
+
+    void hedgeWon() {
+        hedgeWins.increment();
+    }
+
+    /** Diferença entre o pedido original (que perdeu) e a resposta usada. */
+    void saved(long nanos) {
+        if (nanos <= 0) return;
+        savedMicros.add(nanos / 1_000);
+        savedSamples.increment();
+    }
+
+    void report() {
+        if (gets.sum() == 0) return;
+        if (hedging) {
+            System.out.printf("[Hedging] %d GETs, %d hedged (%.1f%%), %d won by the hedge, %d skipped by budget; "
+                            + "saved %.1f s in total (%.0f ms per win)%n",
+                    gets.sum(), fired.sum(), 100.0 * fired.sum() / gets.sum(), hedgeWins.sum(), skippedByBudget.sum(),
+                    savedMicros.sum() / 1_000_000.0,
+                    savedSamples.sum() == 0 ? 0 : savedMicros.sum() / 1_000.0 / savedSamples.sum());
+        }
+        new TreeMap<>(windows).forEach((endpoint, window) -> {
+            double delay = window.percentileMillis(hedgePercentile);
+            Duration timeout = timeout(endpoint);
+            System.out.printf("[Hedging] %-40s hedge after %s, timeout %s%n", endpoint,
+                    hedging && delay >= 0 ? String.format("%.0f ms", Math.max(minDelayMs, Math.min(maxDelayMs, delay))) : "-",
+                    timeout == null ? "default" : timeout.toMillis() + " ms");
+        });
+    }
+
+    private static double doubleProperty(String key, double fallback) {
+        try {
+            return Double.parseDouble(ConfigReader.getProperty(key, Double.toString(fallback)));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
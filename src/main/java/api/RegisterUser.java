@@ -3,24 +3,45 @@ package api;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class RegisterUser {
+    private static final String URL = "https://monetis-delta.vercel.app/api/users/register";
+
     public static Map<String, Object> register() throws IOException, InterruptedException {
-        String url = "https://monetis-delta.vercel.app/api/users/register";
+        return register("testing@example.com", "123123123", "testingPassword!1");
+    }
+
+    // Regista um utilizador com email/telefone/password próprios (ex.: contas do TestUserPool)
+    public static Map<String, Object> register(String email, String phone, String password) throws IOException, InterruptedException {
+        String response = ApiClient.post(URL, body(email, phone, password));
+        return ApiClient.parseJson(response);
+    }
 
+    // Versão assíncrona (para provisionar muitos utilizadores com ApiClient.batch)
+    public static CompletableFuture<Map<String, Object>> registerAsync(String email, String phone, String password) {
+        return ApiClient.postAsync(URL, body(email, phone, password)).thenApply(response -> {
+            try {
+                return ApiClient.parseJson(response);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private static Map<String, Object> body(String email, String phone, String password) {
         Map<String, Object> body = new HashMap<>();
         body.put("name", "Testing");
         body.put("surname", "Account");
-        body.put("email", "testing@example.com");
-        body.put("phone_number", "123123123");
+        body.put("email", email);
+        body.put("phone_number", phone);
         body.put("street_address", "Some Random street");
         body.put("postal_code", "1231-123");
         body.put("city", "Lisbon");
         body.put("country", "PT");
-        body.put("password", "testingPassword!1");
-        body.put("confirmPassword", "testingPassword!1");
-
-        String response = ApiClient.post(url, body);
-        return ApiClient.parseJson(response);
+        body.put("password", password);
+        body.put("confirmPassword", password);
+        return body;
     }
 }
@@ -0,0 +1,165 @@
+package api;
+
+import utils.ConfigReader;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de respostas GET do {@link ApiClient} para dados lidos muitas vezes (contas, perfil,
+ * categorias), por URL + identidade (o utilizador da sessão): dois utilizadores nunca partilham
+ * entradas, e um login novo do mesmo utilizador reaproveita as que já existem.
+ *
+ *  - LRU com no máximo API_CACHE_MAX_ENTRIES entradas (omissão 256)
+ *  - fresca durante API_CACHE_TTL_MS (omissão 2000) ou o maxAge de quem pede; depois disso,
+ *    se a API deu ETag, é revalidada com If-None-Match (304 = reaproveita o corpo)
+ *  - um POST/DELETE da mesma identidade apaga as entradas dela, e qualquer escrita apaga as
+ *    entradas do mesmo recurso (/api/accounts/... invalida /api/accounts de todos)
+ *
+ * No fim imprime hits / revalidações / misses e os bytes que não vieram pela rede.
+ * API_CACHE=false desliga (todos os GETs vão à rede).
+ */
+class ResponseCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+    private static final int DEFAULT_TTL_MS = 2_000;
+
+    record Entry(String etag, byte[] body, long storedAt) {
+        boolean isFresh(Duration maxAge) {
+            return System.nanoTime() - storedAt <= maxAge.toNanos();
+        }
+    }
+
+    private final boolean enabled = ConfigReader.getBoolean("API_CACHE", true);
+    private final int maxEntries = Math.max(1, ConfigReader.getInt("API_CACHE_MAX_ENTRIES", DEFAULT_MAX_ENTRIES));
+    private final Duration ttl = Duration.ofMillis(ConfigReader.getInt("API_CACHE_TTL_MS", DEFAULT_TTL_MS));
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+    private final AtomicBoolean hookInstalled = new AtomicBoolean();
+
+    // access order = LRU; protegido pelo lock do próprio mapa
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            if (size() > maxEntries) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    Duration ttl() {
+        return ttl;
+    }
+
+    static String key(String url, String identity) {
+        return identity + "\n" + url;
+    }
+
+    Entry get(String key) {
+        if (!enabled) return null;
+        synchronized (entries) {
+            return entries.get(key);
+        }
+    }
+
+    void put(String key, String etag, byte[] body) {
+        if (!enabled) return;
+        installReport();
+        synchronized (entries) {
+            entries.put(key, new Entry(etag, body, System.nanoTime()));
+        }
+    }
+
+    void remove(String key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    void hit(Entry entry) {
+        hits.increment();
+        bytesSaved.add(entry.body().length);
+    }
+
+    /** 304: o corpo guardado continua válido e volta a estar fresco. */
+    void revalidated(String key, Entry entry) {
+        revalidated.increment();
+        bytesSaved.add(entry.body().length);
+        synchronized (entries) {
+            entries.put(key, new Entry(entry.etag(), entry.body(), System.nanoTime()));
+        }
+    }
+
+    long served() {
+        return hits.sum() + revalidated.sum();
+    }
+
+    void miss() {
+        if (enabled) misses.increment();
+    }
+
+    /** Escrita sem sessão (Basic auth): só as entradas do mesmo recurso deixam de valer. */
+    void invalidate(String url) {
+        invalidate(url, null);
+    }
+
+    /** Depois de uma escrita: entradas da mesma identidade (se houver) e do mesmo recurso deixam de valer. */
+    void invalidate(String url, String identity) {
+        if (!enabled) return;
+        String resource = resource(url);
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                String key = it.next().getKey();
+                if ((identity != null && key.startsWith(identity + "\n"))
+                        || resource(key.substring(key.indexOf('\n') + 1)).equals(resource)) {
+                    it.remove();
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    // "/api/accounts/123/deposit" -> "/api/accounts"
+    private static String resource(String url) {
+        String path = URI.create(url).getPath();
+        if (path == null) return "";
+        String[] segments = path.replaceAll("^/+", "").split("/");
+        if (segments.length == 0) return "/";
+        return segments[0].equals("api") && segments.length > 1
+                ? "/api/" + segments[1]
+                : "/" + segments[0];
+    }
+
+    private void installReport() {
+        if (hookInstalled.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::report, "response-cache-report"));
+        }
+    }
+
+    void report() {
+        long served = hits.sum() + revalidated.sum();
+        long total = served + misses.sum();
+        if (total == 0) return;
+        System.out.printf("[ResponseCache] %d GETs: %d hits, %d revalidated (304), %d misses (%.0f%% served from cache), "
+                        + "%d evictions, %d invalidations, %d KB not re-downloaded%n",
+                total, hits.sum(), revalidated.sum(), misses.sum(), 100.0 * served / total,
+                evictions.sum(), invalidations.sum(), bytesSaved.sum() / 1024);
+    }
+}
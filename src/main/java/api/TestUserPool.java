@@ -0,0 +1,377 @@
+package api;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.cdimascio.dotenv.Dotenv;
+import utils.ConfigReader;
+import utils.IdentityGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pool de contas de teste pré-registadas pela API (RegisterUser), uma por cenário em paralelo.
+ *
+ * Antes da execução garante TEST_USER_POOL_SIZE contas (omissão 4), registando as que faltam
+ * em paralelo. As contas ficam em TEST_USER_POOL_FILE (omissão test-users.json) e são
+ * reaproveitadas nas execuções seguintes: todas nasceram do mesmo registo, por isso têm as
+ * mesmas contas que a app dá a um utilizador novo.
+ *
+ * Em cada execução, antes da primeira lease, todas as contas do pool são financiadas até ao
+ * saldo base: TEST_USER_MIN_BALANCE na Checking (omissão 1000, o que os cenários de
+ * transferência gastam; 0 = não financia), com AccountsApi.ensureBalance. Se alguma conta não
+ * chegar lá (ex.: conta nova sem saldo e sem API_DEPOSIT_PATH), o provisionamento falha e
+ * nenhum cenário recebe conta, em vez de cada cenário descobrir a meio que não tem fundos.
+ * Uma conta que volta a ser emprestada é financiada de novo antes de chegar ao cenário.
+ *
+ * Cada cenário faz lease exclusivo de uma conta ({@link #forScenario()}) e devolve-a no @After
+ * ({@link #releaseCurrent()}). A exclusividade é um file lock por conta, por isso vale também
+ * entre forks/JVMs e é libertada pelo SO se a JVM morrer.
+ *
+ * Outlines @batch (OUTLINE_BATCH): o browser fica reservado ainda autenticado com a conta da
+ * linha, por isso a lease vai com ele ({@link #detachCurrent()} / {@link #attach(Lease)}) e só
+ * é libertada quando o browser é limpo para outro cenário.
+ *
+ * Com TEST_USER_POOL=false (omissão) todos os cenários usam o USER/PASSWORD do .env, como antes.
+ */
+public class TestUserPool {
+
+    private static final String DEFAULT_FILE = "test-users.json";
+    private static final int DEFAULT_SIZE = 4;
+    private static final int DEFAULT_LEASE_TIMEOUT_SECONDS = 300;
+    private static final int MAX_CONCURRENT_REGISTRATIONS = 8;
+    private static final int DEFAULT_MIN_BALANCE = 1_000;
+    private static final String FUNDED_ACCOUNT = "Checking";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static TestUserPool instance;
+
+    // lease do cenário da thread atual (lazy: só os cenários que precisam de login)
+    private static final ThreadLocal<Lease> CURRENT = new ThreadLocal<>();
+
+    private final Path file;
+    private final CompletableFuture<List<TestUser>> users;
+    // financiadas no provisionamento e ainda sem lease: as outras voltam a ser financiadas na lease
+    private final Set<String> funded = ConcurrentHashMap.newKeySet();
+
+    /** Conta de teste registada pela API. */
+    public record TestUser(String email, String password, String phone, long createdAt) {
+    }
+
+    /** Lease exclusiva de uma conta; close() devolve-a ao pool. */
+    public static final class Lease implements AutoCloseable {
+        private final TestUser user;
+        private final FileChannel channel;
+        private final FileLock lock;
+
+        private Lease(TestUser user, FileChannel channel, FileLock lock) {
+            this.user = user;
+            this.channel = channel;
+            this.lock = lock;
+        }
+
+        public TestUser user() {
+            return user;
+        }
+
+        @Override
+        public void close() {
+            try {
+                lock.release();
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("[TestUserPool] Could not release " + user.email() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private TestUserPool(Path file, int size) {
+        this.file = file;
+        this.users = CompletableFuture.supplyAsync(() -> provision(size), daemonExecutor(1, "test-user-pool"));
+    }
+
+    public static boolean isEnabled() {
+        return ConfigReader.getBoolean("TEST_USER_POOL", false);
+    }
+
+    /** Pool partilhado; na primeira chamada começa a registar (em background) as contas que faltam. */
+    public static synchronized TestUserPool get() {
+        if (instance == null) {
+            instance = new TestUserPool(
+                    Path.of(ConfigReader.getProperty("TEST_USER_POOL_FILE", DEFAULT_FILE)).toAbsolutePath(),
+                    ConfigReader.getInt("TEST_USER_POOL_SIZE", DEFAULT_SIZE));
+        }
+        return instance;
+    }
+
+    /**
+     * Conta do cenário da thread atual: faz lease na primeira chamada e devolve sempre a mesma
+     * até ao {@link #releaseCurrent()}. Com o pool desligado devolve o utilizador do .env.
+     */
+    public static TestUser forScenario() {
+        if (!isEnabled()) {
+            Dotenv env = Dotenv.load();
+            return new TestUser(env.get("USER"), env.get("PASSWORD"), null, 0);
+        }
+        Lease lease = CURRENT.get();
+        if (lease == null) {
+            lease = get().lease();
+            CURRENT.set(lease);
+        }
+        return lease.user();
+    }
+
+    /** Fim do cenário (Hooks): devolve a conta ao pool, se houver lease. */
+    public static void releaseCurrent() {
+        Lease lease = detachCurrent();
+        if (lease != null) lease.close();
+    }
+
+    /**
+     * Tira a lease da thread sem a libertar (null se não houver): a conta continua reservada
+     * até alguém fazer close(), ex. o browser reservado para a linha seguinte de uma outline @batch.
+     */
+    public static Lease detachCurrent() {
+        Lease lease = CURRENT.get();
+        CURRENT.remove();
+        return lease;
+    }
+
+    /** Volta a associar à thread atual uma lease que veio com o browser (continuação de outline @batch). */
+    public static void attach(Lease lease) {
+        Lease previous = CURRENT.get();
+        if (previous == lease) return;
+        if (previous != null) previous.close();
+        CURRENT.set(lease);
+    }
+
+    /** Espera por uma conta livre (até TEST_USER_LEASE_TIMEOUT_SECONDS). */
+    private Lease lease() {
+        List<TestUser> available;
+        try {
+            available = users.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        if (available.isEmpty()) {
+            throw new IllegalStateException("Test user pool is empty: provisioning failed, see " + file);
+        }
+
+        long deadline = System.currentTimeMillis()
+                + ConfigReader.getInt("TEST_USER_LEASE_TIMEOUT_SECONDS", DEFAULT_LEASE_TIMEOUT_SECONDS) * 1000L;
+        // começa num ponto aleatório para os forks não disputarem todos a primeira conta
+        int offset = ThreadLocalRandom.current().nextInt(available.size());
+        while (true) {
+            for (int i = 0; i < available.size(); i++) {
+                Lease lease = tryLease(available.get((offset + i) % available.size()));
+                if (lease != null) return refunded(lease);
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("No free test user after waiting (pool size " + available.size()
+                        + "): raise TEST_USER_POOL_SIZE to match the number of parallel workers");
+            }
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a test user", e);
+            }
+        }
+    }
+
+    /** O cenário anterior pode ter gasto o saldo base: volta a financiar (menos na primeira lease). */
+    private Lease refunded(Lease lease) {
+        if (funded.remove(lease.user().email())) return lease;
+        try {
+            fund(List.of(lease.user()));
+        } catch (RuntimeException e) {
+            lease.close();
+            throw e;
+        }
+        return lease;
+    }
+
+    private Lease tryLease(TestUser user) {
+        String lockName = user.email().replaceAll("[^A-Za-z0-9._-]", "_") + ".lock";
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(lockDir().resolve(lockName), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return new Lease(user, channel, lock);
+            }
+        } catch (OverlappingFileLockException e) {
+            // já está em uso noutra thread desta JVM
+        } catch (IOException e) {
+            System.err.println("[TestUserPool] Could not lock " + user.email() + ": " + e.getMessage());
+        }
+        closeQuietly(channel);
+        return null;
+    }
+
+    /** Lê o ficheiro do pool, regista em paralelo as contas que faltam e financia-as até ao saldo base. */
+    private List<TestUser> provision(int size) {
+        List<TestUser> pool = register(size);
+        fund(pool);
+        pool.forEach(user -> funded.add(user.email()));
+        return pool;
+    }
+
+    /** Regista em paralelo as contas que faltam para chegar a size. */
+    private List<TestUser> register(int size) {
+        List<TestUser> existing = new ArrayList<>(load());
+        int missing = size - existing.size();
+        if (missing <= 0) {
+            return existing.subList(0, size);
+        }
+
+        long start = System.nanoTime();
+        List<IdentityGenerator.Identity> identities = new ArrayList<>();
+        for (int i = 0; i < missing; i++) {
+            identities.add(IdentityGenerator.next());
+        }
+
+        List<ApiClient.BatchResult<IdentityGenerator.Identity, Map<String, Object>>> results;
+        try {
+            results = ApiClient.batch(identities, MAX_CONCURRENT_REGISTRATIONS,
+                    id -> RegisterUser.registerAsync(id.email(), id.phone(), id.password()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return existing;
+        }
+
+        List<TestUser> created = new ArrayList<>();
+        for (ApiClient.BatchResult<IdentityGenerator.Identity, Map<String, Object>> result : results) {
+            IdentityGenerator.Identity id = result.item();
+            if (!result.isOk()) {
+                System.err.println("[TestUserPool] Registration failed for " + id.email() + ": " + result.error().getMessage());
+            } else if (!Boolean.TRUE.equals(result.value().get("success"))) {
+                System.err.println("[TestUserPool] Registration rejected for " + id.email() + ": " + result.value());
+            } else {
+                created.add(new TestUser(id.email(), id.password(), id.phone(), System.currentTimeMillis()));
+            }
+        }
+        existing.addAll(created);
+        save(existing);
+
+        System.out.printf("[TestUserPool] registered %d/%d users in %d ms (%d in %s)%n",
+                created.size(), missing, (System.nanoTime() - start) / 1_000_000, existing.size(), file);
+        return existing;
+    }
+
+    /** Garante TEST_USER_MIN_BALANCE na Checking de cada conta; IllegalStateException se alguma não chegar lá. */
+    private static void fund(List<TestUser> pool) {
+        BigDecimal minimum = BigDecimal.valueOf(ConfigReader.getInt("TEST_USER_MIN_BALANCE", DEFAULT_MIN_BALANCE));
+        if (minimum.signum() <= 0 || pool.isEmpty()) return;
+
+        long start = System.nanoTime();
+        ExecutorService executor = daemonExecutor(MAX_CONCURRENT_REGISTRATIONS, "test-user-funding");
+        List<ApiClient.BatchResult<TestUser, BigDecimal>> results;
+        try {
+            results = ApiClient.batch(pool, MAX_CONCURRENT_REGISTRATIONS, user -> CompletableFuture.supplyAsync(() -> {
+                try {
+                    return AccountsApi.ensureBalance(user.email(), user.password(), FUNDED_ACCOUNT, minimum);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while funding test users", e);
+        } finally {
+            executor.shutdown();
+        }
+
+        List<String> failures = new ArrayList<>();
+        for (ApiClient.BatchResult<TestUser, BigDecimal> result : results) {
+            if (!result.isOk()) {
+                failures.add(result.item().email() + ": " + result.error().getMessage());
+            }
+        }
+        if (!failures.isEmpty()) {
+            String message = String.format("Could not fund %d/%d test users to %s on %s (set API_DEPOSIT_PATH or lower "
+                    + "TEST_USER_MIN_BALANCE): %s", failures.size(), pool.size(), minimum, FUNDED_ACCOUNT, failures);
+            System.err.println("[TestUserPool] " + message);
+            throw new IllegalStateException(message);
+        }
+        System.out.printf("[TestUserPool] %d users funded to at least %s on %s in %d ms%n",
+                pool.size(), minimum, FUNDED_ACCOUNT, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<TestUser> load() {
+        if (!Files.exists(file)) return List.of();
+        try {
+            return MAPPER.readValue(file.toFile(), new TypeReference<List<TestUser>>() {
+            });
+        } catch (IOException e) {
+            System.err.println("[TestUserPool] Could not read " + file + ", starting a new pool: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    /** Grava com file lock: vários forks podem provisionar ao mesmo tempo. */
+    private void save(List<TestUser> users) {
+        Path lock = file.resolveSibling(file.getFileName() + ".lock");
+        try (FileChannel channel = FileChannel.open(lock, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+
+            // outro fork pode ter gravado entretanto: junta sem duplicar
+            List<TestUser> merged = new ArrayList<>(load());
+            for (TestUser user : users) {
+                if (merged.stream().noneMatch(u -> u.email().equalsIgnoreCase(user.email()))) {
+                    merged.add(user);
+                }
+            }
+
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(tmp.toFile(), merged);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("[TestUserPool] Could not update " + file + ": " + e.getMessage());
+        }
+    }
+
+    private Path lockDir() throws IOException {
+        Path dir = file.resolveSibling(file.getFileName() + ".d");
+        Files.createDirectories(dir);
+        return dir;
+    }
+
+    private static ExecutorService daemonExecutor(int threads, String name) {
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignore) {
+            // nada a fazer
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package api;
+
+import api.model.Account;
+import utils.ConfigReader;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cria histórico de transações numa conta de teste pela API (harness de escala do TransactionsPage).
+ *
+ * Mistura pagamentos (API_PAYMENT_PATH, omissão /api/payments) e transferências entre as contas
+ * próprias (AccountsApi.transfer, alternando Checking -> Savings e Savings -> Checking para os saldos
+ * não se esgotarem). SEED_PAYMENT_RATIO (omissão 0.5) é a fração de pagamentos e
+ * SEED_CONCURRENCY (omissão 8) o número de pedidos em paralelo.
+ *
+ * Só os pagamentos gastam dinheiro (SEED_AMOUNT cada, da Checking): {@link #paymentCost(int)}
+ * diz quanto saldo é preciso para semear count transações.
+ */
+public class TransactionSeeder {
+
+    private static final String DEFAULT_PAYMENT_PATH = "/api/payments";
+    private static final int DEFAULT_CONCURRENCY = 8;
+    private static final BigDecimal SEED_AMOUNT = BigDecimal.ONE;
+
+    private final AuthApi.Session session;
+    private final Account checking;
+    private final Account savings;
+    private final AtomicInteger seeded = new AtomicInteger();
+
+    private TransactionSeeder(AuthApi.Session session, List<Account> accounts) throws IOException {
+        this.session = session;
+        this.checking = find(accounts, "checking");
+        this.savings = find(accounts, "savings");
+    }
+
+    public static TransactionSeeder forUser(String email, String password) throws IOException, InterruptedException {
+        AuthApi.Session session = AuthApi.login(email, password);
+        return new TransactionSeeder(session, AccountsApi.accounts(session));
+    }
+
+    /** Quantas transações este seeder já criou. */
+    public int seeded() {
+        return seeded.get();
+    }
+
+    /** Um pagamento com valor próprio (marcador para medir a pesquisa na lista). */
+    public void payment(BigDecimal amount, String category) throws IOException, InterruptedException {
+        String url = ApiClient.url(ConfigReader.getProperty("API_PAYMENT_PATH", DEFAULT_PAYMENT_PATH));
+        HttpResponse<String> response = ApiClient.postWithSession(url, Map.of(
+                "account", checking.id(),
+                "reference", "SEED-" + System.nanoTime(),
+                "entity", "12345",
+                "amount", amount,
+                "category", category), session);
+        if (response.statusCode() >= 400) {
+            throw new IOException("POST " + url + " failed: HTTP " + response.statusCode() + " " + response.body());
+        }
+        seeded.incrementAndGet();
+    }
+
+    /** Quantos pagamentos há em count transações semeadas (o resto são transferências). */
+    public static int payments(int count) {
+        double paymentRatio = Double.parseDouble(ConfigReader.getProperty("SEED_PAYMENT_RATIO", "0.5"));
+        return (int) Math.round(count * paymentRatio);
+    }
+
+    /** Saldo que sai da Checking para semear count transações (as transferências acertam entre si). */
+    public static BigDecimal paymentCost(int count) {
+        return SEED_AMOUNT.multiply(BigDecimal.valueOf(payments(count)));
+    }
+
+    /**
+     * Cria count transações em paralelo; devolve quantas falharam (a curva regista o
+     * tamanho real do histórico, por isso uma falha pontual não invalida a medição).
+     */
+    public int seed(int count) throws InterruptedException {
+        return seed(count, true);
+    }
+
+    /** Como {@link #seed(int)}; com withPayments=false só transferências (não gastam saldo). */
+    public int seed(int count, boolean withPayments) throws InterruptedException {
+        int concurrency = Math.max(1, ConfigReader.getInt("SEED_CONCURRENCY", DEFAULT_CONCURRENCY));
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+
+        List<Future<?>> pending = new ArrayList<>();
+        int payments = withPayments ? payments(count) : 0;
+        for (int i = 0; i < count; i++) {
+            boolean payment = i < payments;
+            boolean toSavings = i % 2 == 0;
+            pending.add(executor.submit(() -> {
+                if (payment) {
+                    payment(SEED_AMOUNT, "bills");
+                } else {
+                    AccountsApi.transfer(session, toSavings ? checking : savings, toSavings ? savings : checking, SEED_AMOUNT);
+                    seeded.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        executor.shutdown();
+
+        int failed = 0;
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failed++ == 0) {
+                    System.err.println("[TransactionSeeder] " + e.getCause().getMessage());
+                }
+            }
+        }
+        return failed;
+    }
+
+    private static Account find(List<Account> accounts, String name) throws IOException {
+        return accounts.stream()
+                .filter(a -> a.name().contains(name))
+                .findFirst()
+                .orElseThrow(() -> new IOException("No '" + name + "' account in " + accounts));
+    }
+}
@@ -0,0 +1,56 @@
+package api;
+
+import api.model.Transaction;
+import utils.ConfigReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Transações recentes do utilizador pela API (API_TRANSACTIONS_PATH, omissão /api/transactions).
+ * Aceita lista direta ou dentro de "transactions"/"data"/"items".
+ *
+ * O corpo é lido em stream ({@link Transaction#read}): com histórico grande, {@link #find}
+ * para de ler assim que encontra a transação, sem copiar a resposta para String nem Map.
+ */
+public class TransactionsApi {
+
+    private static final String DEFAULT_TRANSACTIONS_PATH = "/api/transactions";
+
+    private static final List<String> LIST_FIELDS = List.of("transactions", "data", "items");
+
+    public static String url() {
+        return ApiClient.url(ConfigReader.getProperty("API_TRANSACTIONS_PATH", DEFAULT_TRANSACTIONS_PATH));
+    }
+
+    /** Primeira transação (pela ordem da API) que cumpre match; o resto da resposta não é lido. */
+    public static Optional<Transaction> find(AuthApi.Session session, Predicate<Transaction> match)
+            throws IOException, InterruptedException {
+        String url = url();
+        HttpResponse<InputStream> response = ApiClient.getStreamWithSession(url, session);
+        if (response.statusCode() >= 400) {
+            response.body().close();
+            throw new IOException("GET " + url + " failed: HTTP " + response.statusCode());
+        }
+        Transaction[] found = new Transaction[1];
+        ApiClient.readList(ApiClient.parser(response.body()), LIST_FIELDS, Transaction::read, tx -> {
+            if (!match.test(tx)) return true;
+            found[0] = tx;
+            return false;
+        });
+        return Optional.ofNullable(found[0]);
+    }
+
+    static List<Transaction> parse(byte[] body) throws IOException {
+        return ApiClient.readList(ApiClient.parser(body), LIST_FIELDS, Transaction::read);
+    }
+
+    /** Como {@link #find}, sobre um corpo já em memória (ex.: cache de ETag do ApiVerifier). */
+    static boolean anyMatch(byte[] body, Predicate<Transaction> match) throws IOException {
+        return !ApiClient.readList(ApiClient.parser(body), LIST_FIELDS, Transaction::read, tx -> !match.test(tx));
+    }
+}
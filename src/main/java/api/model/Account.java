@@ -0,0 +1,47 @@
+package api.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+/** Conta tal como vem da API (nome normalizado em minúsculas). */
+public record Account(String id, String name, BigDecimal balance) {
+
+    private static final List<String> ID_FIELDS = List.of("id", "_id", "iban", "account_number", "accountNumber");
+    private static final List<String> NAME_FIELDS = List.of("name", "title", "type", "account_type", "accountType");
+    private static final List<String> BALANCE_FIELDS = List.of("balance", "available_balance", "availableBalance", "amount");
+
+    /**
+     * Lê uma conta com o parser no START_OBJECT e deixa-o no END_OBJECT.
+     * Devolve null se faltar o nome ou o saldo (entrada que não é uma conta).
+     */
+    public static Account read(JsonParser parser) throws IOException {
+        String id = null, name = null;
+        BigDecimal balance = null;
+        int idRank = -1, nameRank = -1, balanceRank = -1;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken().isStructStart()) {
+                parser.skipChildren();
+                continue;
+            }
+            if (parser.currentToken() == JsonToken.VALUE_NULL) continue;
+            if (JsonFields.better(ID_FIELDS, field, idRank)) {
+                id = parser.getText();
+                idRank = JsonFields.rank(ID_FIELDS, field);
+            } else if (JsonFields.better(NAME_FIELDS, field, nameRank)) {
+                name = parser.getText();
+                nameRank = JsonFields.rank(NAME_FIELDS, field);
+            } else if (JsonFields.better(BALANCE_FIELDS, field, balanceRank)) {
+                balance = JsonFields.amount(parser);
+                balanceRank = JsonFields.rank(BALANCE_FIELDS, field);
+            }
+        }
+        if (name == null || balance == null) return null;
+        return new Account(id, name.trim().toLowerCase(), balance);
+    }
+}
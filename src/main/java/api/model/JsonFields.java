@@ -0,0 +1,59 @@
+package api.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Leitura de campos escalares com o JsonParser (usado pelos decoders dos modelos).
+ *
+ * A API não tem os nomes dos campos documentados, por isso cada modelo aceita vários nomes
+ * por campo; quando vêm vários, ganha o primeiro da lista (mesma prioridade que os parsers
+ * antigos por Map).
+ */
+public final class JsonFields {
+
+    private JsonFields() {
+    }
+
+    /** Posição do campo na lista de nomes aceites (0 = preferido), ou -1 se não for deste campo. */
+    public static int rank(List<String> names, String field) {
+        return names.indexOf(field);
+    }
+
+    /** true se o campo é desta lista e tem prioridade sobre o que já foi lido (bestRank, -1 = nada lido). */
+    public static boolean better(List<String> names, String field, int bestRank) {
+        int rank = rank(names, field);
+        return rank >= 0 && (bestRank < 0 || rank < bestRank);
+    }
+
+    /** Valor escalar como texto (null para JSON null). */
+    public static String text(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    /** Número JSON ou texto formatado ("10.000,00 €"); null para JSON null. */
+    public static BigDecimal amount(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+        }
+        return token == JsonToken.VALUE_NULL ? null : parseAmount(parser.getText());
+    }
+
+    /** Valores em texto como a app os mostra ("10.000,00 €", "1,000.50", "-7,77€"). */
+    public static BigDecimal parseAmount(String value) {
+        String s = value.replaceAll("[^0-9,.-]", "");
+        if (s.contains(",") && s.contains(".")) {
+            s = s.lastIndexOf(',') > s.lastIndexOf('.')
+                    ? s.replace(".", "").replace(',', '.')   // 10.000,00
+                    : s.replace(",", "");                     // 10,000.00
+        } else if (s.contains(",")) {
+            s = s.replace(',', '.');
+        }
+        return s.isEmpty() ? BigDecimal.ZERO : new BigDecimal(s);
+    }
+}
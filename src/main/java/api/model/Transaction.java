@@ -0,0 +1,78 @@
+package api.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Transação da API. fingerprint identifica-a mesmo quando a API não devolve id
+ * (usado para distinguir transações novas das que já existiam).
+ */
+public record Transaction(String fingerprint, BigDecimal amount, String category) {
+
+    private static final List<String> ID_FIELDS = List.of("id", "_id", "transaction_id", "transactionId");
+    private static final List<String> AMOUNT_FIELDS = List.of("amount", "value", "total");
+    private static final List<String> CATEGORY_FIELDS = List.of("category", "category_name", "categoryName", "type");
+
+    /**
+     * Lê uma transação com o parser no START_OBJECT e deixa-o no END_OBJECT.
+     * Devolve null se não tiver valor. Sem id, o fingerprint são os campos escalares por ordem.
+     */
+    public static Transaction read(JsonParser parser) throws IOException {
+        String id = null, category = null;
+        BigDecimal amount = null;
+        int idRank = -1, amountRank = -1, categoryRank = -1;
+        StringBuilder scalars = new StringBuilder();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+
+            if (token == JsonToken.START_OBJECT && JsonFields.better(CATEGORY_FIELDS, field, categoryRank)) {
+                // categoria como objeto {id, name}
+                String name = nestedName(parser);
+                if (name != null) {
+                    category = name;
+                    categoryRank = JsonFields.rank(CATEGORY_FIELDS, field);
+                }
+                continue;
+            }
+            if (token.isStructStart()) {
+                parser.skipChildren();
+                continue;
+            }
+            if (token == JsonToken.VALUE_NULL) continue;
+
+            scalars.append(field).append('=').append(parser.getText()).append(';');
+            if (JsonFields.better(ID_FIELDS, field, idRank)) {
+                id = parser.getText();
+                idRank = JsonFields.rank(ID_FIELDS, field);
+            } else if (JsonFields.better(AMOUNT_FIELDS, field, amountRank)) {
+                amount = JsonFields.amount(parser);
+                amountRank = JsonFields.rank(AMOUNT_FIELDS, field);
+            } else if (JsonFields.better(CATEGORY_FIELDS, field, categoryRank)) {
+                category = parser.getText();
+                categoryRank = JsonFields.rank(CATEGORY_FIELDS, field);
+            }
+        }
+        if (amount == null) return null;
+        return new Transaction(id != null ? id : scalars.toString(), amount,
+                category == null ? null : category.trim().toLowerCase());
+    }
+
+    private static String nestedName(JsonParser parser) throws IOException {
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken().isStructStart()) {
+                parser.skipChildren();
+            } else if (field.equals("name")) {
+                name = JsonFields.text(parser);
+            }
+        }
+        return name;
+    }
+}
@@ -0,0 +1,47 @@
+package api.model;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.List;
+
+/** Utilizador tal como vem nas respostas de login/registo (campos que faltarem ficam null). */
+public record User(String id, String email, String name, String surname, String phone) {
+
+    private static final List<String> ID_FIELDS = List.of("id", "_id", "user_id", "userId");
+    private static final List<String> NAME_FIELDS = List.of("name", "first_name", "firstName");
+    private static final List<String> SURNAME_FIELDS = List.of("surname", "last_name", "lastName");
+    private static final List<String> PHONE_FIELDS = List.of("phone_number", "phoneNumber", "phone");
+
+    /** Lê um utilizador com o parser no START_OBJECT e deixa-o no END_OBJECT; null se não tiver email nem id. */
+    public static User read(JsonParser parser) throws IOException {
+        String id = null, email = null, name = null, surname = null, phone = null;
+        int idRank = -1, nameRank = -1, surnameRank = -1, phoneRank = -1;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken().isStructStart()) {
+                parser.skipChildren();
+                continue;
+            }
+            if (parser.currentToken() == JsonToken.VALUE_NULL) continue;
+            if (field.equals("email")) {
+                email = parser.getText();
+            } else if (JsonFields.better(ID_FIELDS, field, idRank)) {
+                id = parser.getText();
+                idRank = JsonFields.rank(ID_FIELDS, field);
+            } else if (JsonFields.better(NAME_FIELDS, field, nameRank)) {
+                name = parser.getText();
+                nameRank = JsonFields.rank(NAME_FIELDS, field);
+            } else if (JsonFields.better(SURNAME_FIELDS, field, surnameRank)) {
+                surname = parser.getText();
+                surnameRank = JsonFields.rank(SURNAME_FIELDS, field);
+            } else if (JsonFields.better(PHONE_FIELDS, field, phoneRank)) {
+                phone = parser.getText();
+                phoneRank = JsonFields.rank(PHONE_FIELDS, field);
+            }
+        }
+        return email == null && id == null ? null : new User(id, email, name, surname, phone);
+    }
+}
@@ -6,6 +6,7 @@ import org.openqa.selenium.support.ui.*;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.List;
 
 /**
  * Página de Payments – Compatível com todos os cenários
@@ -59,6 +60,11 @@ public class PaymentsPage {
 
     private static final By closeButton = By.xpath("//button[normalize-space()='Close']");
 
+    // ---------- NAV (para o route reset entre linhas de Examples) ----------
+    private static final By NAV_PAYMENTS = By.xpath(
+            "//div[@class='navigation']//div[@class='options']/div[span[normalize-space()='Payments']]"
+    );
+
     public PaymentsPage(WebDriver driver) {
         this.driver = driver;
         this.wait   = new WebDriverWait(driver, Duration.ofSeconds(12));
@@ -192,6 +198,32 @@ public class PaymentsPage {
 
     }
 
+    /**
+     * Volta ao formulário vazio sem novo login (OUTLINE_BATCH): fecha o ecrã de sucesso
+     * se ainda estiver aberto e remonta a rota /payments.
+     */
+    public void resetToForm() {
+        WebDriver.Timeouts timeouts = driver.manage().timeouts();
+        Duration implicit = timeouts.getImplicitWaitTimeout();
+        timeouts.implicitlyWait(Duration.ZERO);
+        try {
+            if (!driver.findElements(closeButton).isEmpty()) {
+                closeSuccessScreen();
+            }
+
+            List<WebElement> nav = driver.findElements(NAV_PAYMENTS);
+            if (driver.getCurrentUrl().contains("/payments") || nav.isEmpty()) {
+                // já em /payments (ou sem menu): reload remonta o formulário, a sessão fica no storage
+                driver.navigate().refresh();
+            } else {
+                safeClick(nav.get(0));
+            }
+        } finally {
+            timeouts.implicitlyWait(implicit);
+        }
+        waitLoaded();
+    }
+
     // ============================================================
     // HELPERS
     // ============================================================
@@ -20,6 +20,7 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import pages.LoginPage;
+import utils.ChromeProfileTemplate;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -75,11 +76,15 @@ public class RegisterPage {
 
     // --- locators auxiliares ---
 
-    private static final By COOKIE_BANNER_CLOSE = By.cssSelector(
-            "[id*='cookie' i] [aria-label*='close' i], [class*='cookie' i] [aria-label*='close' i], " +
-                    "[id*='cookie' i] button, [class*='cookie' i] button"
-    );
-    private static final By GENERIC_TOAST = By.cssSelector("[role='alert'], .toast, [class*='toast' i]");
+    private static final String GENERIC_TOAST_CSS = "[role='alert'], .toast, [class*='toast' i]";
+
+    // Um só round-trip: fecha o banner (se visível) e diz se há toasts visíveis.
+    // Sem findElements, por isso não paga o implicit wait quando não há nada no ecrã.
+    private static final String DISMISS_OVERLAYS_JS =
+            "var visible = function (e) { return e.offsetParent !== null; };" +
+            "if (arguments[0]) document.querySelectorAll(arguments[0]).forEach(function (b) {" +
+            "  if (visible(b)) b.click(); });" +
+            "return Array.prototype.some.call(document.querySelectorAll(arguments[1]), visible);";
     private static final By FORM_SELECTOR = By.cssSelector("form");
 
     //---Se email já existe
@@ -102,19 +107,16 @@ public class RegisterPage {
     // --- utility: close overlays that may intercept clicks ---
     private void dismissOverlaysIfPresent() {
         try {
-            for (WebElement el : driver.findElements(COOKIE_BANNER_CLOSE)) {
-                if (el.isDisplayed()) {
-                    try {
-                        el.click();
-                    } catch (Exception e) {
-                        ((JavascriptExecutor) driver).executeScript("arguments[0].click();", el);
-                    }
-                }
-            }
-
-            // small pause if toasts/overlays are on the screen
-            if (driver.findElements(GENERIC_TOAST).stream().anyMatch(WebElement::isDisplayed)) {
-                Thread.sleep(400);
+            // com o perfil modelo o consentimento já está dado: só falta ver os toasts
+            String bannerCss = ChromeProfileTemplate.consentSeeded() ? null : ChromeProfileTemplate.COOKIE_BANNER_CSS;
+            JavascriptExecutor js = (JavascriptExecutor) driver;
+
+            // espera (até 400 ms) que os toasts desapareçam, em vez de dormir sempre 400 ms
+            long deadline = System.currentTimeMillis() + 400;
+            while (Boolean.TRUE.equals(js.executeScript(DISMISS_OVERLAYS_JS, bannerCss, GENERIC_TOAST_CSS))
+                    && System.currentTimeMillis() < deadline) {
+                bannerCss = null;
+                Thread.sleep(50);
             }
         } catch (Exception ignore) {
         }
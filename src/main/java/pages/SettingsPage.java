@@ -2,6 +2,7 @@ package pages;
 
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.*;
+import utils.SessionSnapshots;
 
 import java.time.Duration;
 
@@ -77,10 +78,13 @@ public class SettingsPage {
      */
     public boolean waitUntilLoggedOut(Duration timeout) {
         try {
-            return new WebDriverWait(driver, timeout).until(ExpectedConditions.or(
+            boolean loggedOut = new WebDriverWait(driver, timeout).until(ExpectedConditions.or(
                     ExpectedConditions.urlContains("/login"),
                     ExpectedConditions.visibilityOfElementLocated(LOGIN_CTA)
             ));
+            // sessão terminou: o snapshot guardado deste utilizador deixa de ser válido
+            if (loggedOut) SessionSnapshots.invalidateCurrent();
+            return loggedOut;
         } catch (TimeoutException te) {
             return false;
         }
@@ -47,6 +47,11 @@ public class TransactionsPage {
                 .until(d -> !d.findElements(TRANSACTION_ROWS).isEmpty());
     }
 
+    /** Número de linhas de transação renderizadas neste momento (harness de escala). */
+    public int renderedRowCount() {
+        return driver.findElements(TRANSACTION_ROWS).size();
+    }
+
     /***
      * Espera até que UMA transação com o montante esperado (qualquer formatação) esteja presente.
      * Ex.: "-1000€", "-1.000,00 €", "-1 000,00€", "-1000.00 €"
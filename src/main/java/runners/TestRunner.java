@@ -1,23 +0,0 @@
-package runners;
-
-import io.cucumber.junit.Cucumber;
-import io.cucumber.junit.CucumberOptions;
-import org.junit.runner.RunWith;
-
-@RunWith(Cucumber.class)
-@CucumberOptions(
-        features = "src/test/resources/features",
-        glue = {"stepdefinitions","utils"},
-        plugin = {"pretty", "html:target/cucumber-reports.html"},
-        monochrome = true,
-        tags = "@registo"
-)
-
-public class TestRunner {
-    private TestRunner() {
-    }
-
-    public static TestRunner createTestRunner() {
-        return new TestRunner();
-    }
-}
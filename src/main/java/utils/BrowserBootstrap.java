@@ -0,0 +1,60 @@
+package utils;
+
+import api.TestUserPool;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestRunFinished;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plugin Cucumber que começa a lançar os browsers (e a abrir a landing page)
+ * logo que o runner arranca, em paralelo com o scan do classpath e da glue.
+ * Com TEST_USER_POOL=true arranca também o registo das contas de teste.
+ *
+ * Registo: plugin = {"utils.BrowserBootstrap"} no TestRunner.
+ * No fim da execução indica quanto do arranque do browser ficou sobreposto.
+ */
+public class BrowserBootstrap implements ConcurrentEventListener {
+
+    private final long startNanos = System.nanoTime();
+
+    public BrowserBootstrap() {
+        Thread bootstrap = new Thread(() -> {
+            try {
+                Hooks.warmUp();
+            } catch (RuntimeException e) {
+                // o @Before volta a tentar e reporta o erro no cenário
+                System.err.println("[BrowserBootstrap] Early browser start failed: " + e.getMessage());
+            }
+        }, "browser-bootstrap");
+        bootstrap.setDaemon(true);
+        bootstrap.start();
+
+        // contas de teste registadas em paralelo com o arranque dos browsers
+        if (TestUserPool.isEnabled()) {
+            TestUserPool.get();
+        }
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunFinished.class, event -> report());
+    }
+
+    private void report() {
+        BrowserPool pool = BrowserPool.current();
+        if (pool == null) return;
+        long ready = pool.getFirstReadyNanos();
+        long firstLease = pool.getFirstLeaseNanos();
+        if (ready == 0 || firstLease == 0) return;
+
+        long launchMs = TimeUnit.NANOSECONDS.toMillis(ready - startNanos);
+        long cucumberStartupMs = TimeUnit.NANOSECONDS.toMillis(firstLease - startNanos);
+        long overlappedMs = Math.min(launchMs, cucumberStartupMs);
+        long waitedMs = Math.max(0, launchMs - cucumberStartupMs);
+
+        System.out.printf("[BrowserBootstrap] browser ready after %d ms, Cucumber startup %d ms: overlapped %d ms (%d%% of browser start), first scenario waited %d ms%n",
+                launchMs, cucumberStartupMs, overlappedMs, launchMs == 0 ? 100 : overlappedMs * 100 / launchMs, waitedMs);
+    }
+}
@@ -0,0 +1,207 @@
+package utils;
+
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.bidi.browsingcontext.BrowsingContext;
+import org.openqa.selenium.bidi.browsingcontext.CreateContextParameters;
+import org.openqa.selenium.bidi.module.Browser;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.decorators.WebDriverDecorator;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Modo BROWSER_ISOLATION=context: um único processo Chrome e, por cenário, um
+ * "user context" próprio (BiDi) — cookies, localStorage e sessionStorage separados,
+ * como um perfil incógnito. Gasta muito menos memória do que N processos Chrome.
+ *
+ * A sessão WebDriver é uma só, por isso cada cenário recebe um driver decorado que,
+ * antes de cada comando, bloqueia a sessão e muda para a tab do seu contexto.
+ *
+ * O implicit wait da sessão fica sempre a 0 (com lock, um findElement à espera bloqueava
+ * os outros contextos). Cada contexto tem o seu implicit wait (10 s, como no BrowserPool),
+ * feito pelo decorator: findElement/findElements repetem com o lock largado entre tentativas,
+ * e implicitlyWait(...) de um page object só muda o do próprio contexto, nunca o da sessão.
+ *
+ * O {@link DriverWatchdog} não corre neste modo: os contextos são descartados a cada cenário
+ * e o processo Chrome partilhado não é reciclado.
+ *
+ * Máximo de contextos em simultâneo: BROWSER_CONTEXTS_MAX (omissão 8).
+ */
+public class BrowserContexts {
+
+    private static final int DEFAULT_MAX_CONTEXTS = 8;
+    private static final Duration DEFAULT_IMPLICIT_WAIT = Duration.ofSeconds(10);
+    private static final long FIND_POLL_MILLIS = 100;
+
+    private static BrowserContexts instance;
+
+    private final ChromeDriver driver;
+    private final Browser browser;
+    private final Semaphore slots;
+    private final ReentrantLock sessionLock = new ReentrantLock(true);
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Map<WebDriver, ScenarioContext> leased = new ConcurrentHashMap<>();
+    private volatile String currentHandle;
+
+    private record ScenarioContext(String userContext, BrowsingContext tab) {
+    }
+
+
+    public static boolean isEnabled() {
+        return "context".equalsIgnoreCase(ConfigReader.getProperty("BROWSER_ISOLATION", "process"));
+    }
+
+    public static synchronized BrowserContexts get() {
+        if (instance == null) {
+            ChromeDriverResolver.resolve();
+            instance = new BrowserContexts(ConfigReader.getInt("BROWSER_CONTEXTS_MAX", DEFAULT_MAX_CONTEXTS));
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::shutdown, "browser-contexts-shutdown"));
+        }
+        return instance;
+    }
+
+    private BrowserContexts(int maxContexts) {
+        ChromeOptions options = BrowserOptions.chrome();
+        options.setCapability("webSocketUrl", true);
+        // as tabs dos outros cenários ficam em background: não podem ser "adormecidas"
+        options.addArguments(
+                "--disable-background-timer-throttling",
+                "--disable-renderer-backgrounding",
+                "--disable-backgrounding-occluded-windows");
+
+        this.driver = new ChromeDriver(options);
+        this.driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        BrowserOptions.applyWindow(driver);
+
+        this.browser = new Browser(driver);
+        this.slots = new Semaphore(Math.max(1, maxContexts), true);
+    }
+
+    /** Cria um contexto isolado (e a sua tab) para o cenário atual. */
+    public BrowserPool.PooledBrowser lease() {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a browser context", e);
+        }
+
+        sessionLock.lock();
+        try {
+            String userContext = browser.createUserContext();
+            BrowsingContext tab = new BrowsingContext(driver,
+                    new CreateContextParameters(WindowType.TAB).userContext(userContext));
+
+            WebDriver scoped = new ContextDecorator(tab.getId()).decorate(driver);
+            leased.put(scoped, new ScenarioContext(userContext, tab));
+            return new BrowserPool.PooledBrowser(nextId.incrementAndGet(), scoped);
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        } finally {
+            sessionLock.unlock();
+        }
+    }
+
+    /** Fecha a tab e descarta o contexto (e com ele cookies/storage do cenário). */
+    public void release(BrowserPool.PooledBrowser lease) {
+        ScenarioContext context = leased.remove(lease.getDriver());
+        if (context == null) return;
+
+        sessionLock.lock();
+        try {
+            context.tab().close();
+            browser.removeUserContext(context.userContext());
+            if (context.tab().getId().equals(currentHandle)) {
+                currentHandle = null;
+            }
+        } catch (RuntimeException e) {
+            System.err.println("[BrowserContexts] Could not close context " + context.userContext() + ": " + e.getMessage());
+        } finally {
+            sessionLock.unlock();
+            slots.release();
+        }
+    }
+
+    private void shutdown() {
+        try {
+            driver.quit();
+        } catch (RuntimeException ignore) {
+            // já fechado
+        }
+    }
+
+    /**
+     * Serializa os comandos na sessão partilhada, garante que vão para a tab do cenário e
+     * faz o implicit wait do contexto sem segurar o lock.
+     */
+    private class ContextDecorator extends WebDriverDecorator<WebDriver> {
+        private final String handle;
+        private volatile Duration implicitWait = DEFAULT_IMPLICIT_WAIT;
+
+        ContextDecorator(String handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public Object call(Decorated<?> target, Method method, Object[] args) throws Throwable {
+            if (target.getOriginal() instanceof WebDriver.Timeouts timeouts) {
+                switch (method.getName()) {
+                    case "implicitlyWait":
+                        implicitWait = args.length == 1
+                                ? (Duration) args[0]
+                                : Duration.of((Long) args[0], ((TimeUnit) args[1]).toChronoUnit());
+                        return timeouts;
+                    case "getImplicitWaitTimeout":
+                        return implicitWait;
+                    default:
+                        break;
+                }
+            }
+            if (!method.getName().startsWith("findElement")) {
+                return locked(target, method, args);
+            }
+
+            long deadline = System.nanoTime() + implicitWait.toNanos();
+            while (true) {
+                try {
+                    Object result = locked(target, method, args);
+                    if (!(result instanceof List<?> list) || !list.isEmpty() || System.nanoTime() >= deadline) {
+                        return result;
+                    }
+                } catch (InvocationTargetException e) {
+                    if (!(e.getTargetException() instanceof NoSuchElementException) || System.nanoTime() >= deadline) {
+                        throw e;
+                    }
+                }
+                Thread.sleep(FIND_POLL_MILLIS);
+            }
+        }
+
+        private Object locked(Decorated<?> target, Method method, Object[] args) throws Throwable {
+            sessionLock.lock();
+            try {
+                if (!handle.equals(currentHandle)) {
+                    driver.switchTo().window(handle);
+                    currentHandle = handle;
+                }
+                return super.call(target, method, args);
+            } finally {
+                sessionLock.unlock();
+            }
+        }
+    }
+}
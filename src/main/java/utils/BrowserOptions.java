@@ -0,0 +1,72 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.util.Map;
+
+/**
+ * Opções do Chrome partilhadas pelos dois factories (BrowserPool/Hooks e DriverManager).
+ *
+ * BROWSER_MODE (system property, .env ou monetis.properties):
+ *  - normal (omissão): browser com UI, janela maximizada
+ *  - lean: headless, viewport fixo (BROWSER_WINDOW_SIZE, omissão 1920,1080) e sem
+ *    GPU, extensões, background networking, sync, etc. Pensado para CI, onde a
+ *    memória/CPU de cada browser limita quantos cenários correm ao mesmo tempo.
+ *
+ * PROFILE_TEMPLATE=true: cada sessão arranca numa cópia do {@link ChromeProfileTemplate}.
+ */
+public class BrowserOptions {
+
+    private static final String DEFAULT_WINDOW_SIZE = "1920,1080";
+
+    public static boolean isLean() {
+        return "lean".equalsIgnoreCase(ConfigReader.getProperty("BROWSER_MODE", "normal"));
+    }
+
+    /** Opções de cada sessão: as de base + cópia do perfil modelo (PROFILE_TEMPLATE=true). */
+    public static ChromeOptions chrome() {
+        ChromeOptions options = base();
+        if (ChromeProfileTemplate.isEnabled()) {
+            options.addArguments("--user-data-dir=" + ChromeProfileTemplate.cloneForSession());
+        }
+        return options;
+    }
+
+    /** Opções sem perfil (também usadas para preparar o perfil modelo). */
+    public static ChromeOptions base() {
+        ChromeOptions options = new ChromeOptions();
+        if (!isLean()) {
+            return options;
+        }
+
+        options.addArguments(
+                "--headless=new",
+                "--window-size=" + ConfigReader.getProperty("BROWSER_WINDOW_SIZE", DEFAULT_WINDOW_SIZE),
+                "--disable-gpu",
+                "--disable-extensions",
+                "--disable-background-networking",
+                "--disable-component-update",
+                "--disable-default-apps",
+                "--disable-sync",
+                "--disable-dev-shm-usage",
+                "--disable-features=Translate,MediaRouter,OptimizationHints",
+                "--metrics-recording-only",
+                "--mute-audio",
+                "--no-first-run"
+        );
+        options.setExperimentalOption("prefs", Map.of(
+                "credentials_enable_service", false,
+                "profile.password_manager_enabled", false,
+                "profile.default_content_setting_values.notifications", 2
+        ));
+        return options;
+    }
+
+    /** Em modo lean o tamanho já vem do --window-size; maximize() não faz sentido em headless. */
+    public static void applyWindow(WebDriver driver) {
+        if (!isLean()) {
+            driver.manage().window().maximize();
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool limitado de browsers Chrome lançados antecipadamente.
+ *
+ * Cada cenário faz lease de um browser no @Before e devolve-o no @After.
+ * Na devolução o browser é limpo (cookies, storage, tabs extra) em vez de
+ * ser relançado; só é substituído se a limpeza falhar.
+ *
+ * Com afinidade (OUTLINE_BATCH, ver Hooks) o browser é devolvido sem limpeza e fica
+ * reservado para a linha seguinte da mesma Scenario Outline; se outro cenário precisar
+ * dele e não houver mais nenhum livre, é limpo e emprestado normalmente. O que estiver
+ * preso à sessão dele (ex. a conta de teste em que está autenticado) só é libertado
+ * quando o browser é limpo ou substituído.
+ *
+ * Tamanho: BROWSER_POOL_SIZE (ver {@link ConfigReader}), por omissão 2.
+ * Espera máxima por um browser livre: BROWSER_LEASE_TIMEOUT_SECONDS, por omissão 120.
+ */
+public class BrowserPool {
+
+    private static final int DEFAULT_SIZE = 2;
+    private static final int DEFAULT_LEASE_TIMEOUT_SECONDS = 120;
+
+    private static BrowserPool instance;
+
+    private final int size;
+    private final Duration leaseTimeout;
+    private final String baseURL;
+    private final BlockingQueue<PooledBrowser> idle = new LinkedBlockingQueue<>();
+    private final List<PooledBrowser> all = new CopyOnWriteArrayList<>();
+    private final Map<String, PooledBrowser> parked = new ConcurrentHashMap<>();
+    // outlines com um browser reservado (ou em uso por uma linha que o vai reservar de novo)
+    private final Set<String> openBatches = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final DriverWatchdog watchdog = new DriverWatchdog();
+
+    // métricas para dimensionar o pool
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong leaseWaitTotalNanos = new AtomicLong();
+    private final AtomicLong leaseWaitMaxNanos = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong resetTotalNanos = new AtomicLong();
+    private final AtomicLong resetMaxNanos = new AtomicLong();
+    private final AtomicLong replaced = new AtomicLong();
+    private final AtomicLong batchReuses = new AtomicLong();
+    private final AtomicLong firstReadyNanos = new AtomicLong();
+    private final AtomicLong firstLeaseNanos = new AtomicLong();
+
+
+    /** Browser do pool + quantos cenários já serviu. */
+    public static class PooledBrowser {
+        private final int id;
+        private final WebDriver driver;
+        private int scenariosServed;
+        private boolean batchContinuation;
+        private AutoCloseable session;
+
+        PooledBrowser(int id, WebDriver driver) {
+            this.id = id;
+            this.driver = driver;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public WebDriver getDriver() {
+            return driver;
+        }
+
+        public int getScenariosServed() {
+            return scenariosServed;
+        }
+
+        /** true se veio reservado da linha anterior da mesma outline (sem reset, sessão intacta). */
+        public boolean isBatchContinuation() {
+            return batchContinuation;
+        }
+
+        /** Recurso da sessão autenticada (ex. lease da conta de teste): fica com o browser até ao reset. */
+        public void keepWithSession(AutoCloseable resource) {
+            session = resource;
+        }
+
+        /** Retira o recurso guardado com {@link #keepWithSession} (null se não houver). */
+        public AutoCloseable takeSession() {
+            AutoCloseable resource = session;
+            session = null;
+            return resource;
+        }
+    }
+
+
+    private BrowserPool(int size, Duration leaseTimeout, String baseURL) {
+        this.size = size;
+        this.leaseTimeout = leaseTimeout;
+        this.baseURL = baseURL;
+    }
+
+    /** Pool partilhado; na primeira chamada começa a lançar os browsers em paralelo. */
+    public static synchronized BrowserPool get() {
+        if (instance == null) {
+            int size = ConfigReader.getInt("BROWSER_POOL_SIZE", DEFAULT_SIZE);
+            int timeout = ConfigReader.getInt("BROWSER_LEASE_TIMEOUT_SECONDS", DEFAULT_LEASE_TIMEOUT_SECONDS);
+
+            ChromeDriverResolver.resolve();
+
+            instance = new BrowserPool(Math.max(1, size), Duration.ofSeconds(timeout), ConfigReader.getProperty("BASE_URL"));
+            instance.warmUp();
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::shutdown, "browser-pool-shutdown"));
+        }
+        return instance;
+    }
+
+    /** Pool já criado, ou null (não lança browsers). */
+    public static synchronized BrowserPool current() {
+        return instance;
+    }
+
+    /** Lança todos os browsers em paralelo; cada um fica disponível assim que arranca. */
+    private void warmUp() {
+        ExecutorService launcher = Executors.newFixedThreadPool(size, r -> {
+            Thread t = new Thread(r, "browser-pool-launcher");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < size; i++) {
+            launcher.submit(() -> {
+                try {
+                    idle.offer(launch());
+                    firstReadyNanos.compareAndSet(0, System.nanoTime());
+                } catch (RuntimeException e) {
+                    System.err.println("[BrowserPool] Failed to launch browser: " + e.getMessage());
+                }
+            });
+        }
+        launcher.shutdown();
+    }
+
+    private PooledBrowser launch() {
+        WebDriver driver = new ChromeDriver(BrowserOptions.chrome());
+        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+        if (ChromeProfileTemplate.isEnabled()) {
+            ChromeProfileTemplate.applyConsent(driver);
+        }
+        BrowserOptions.applyWindow(driver);
+
+        // já abre a landing page: o primeiro cenário encontra a sessão pronta
+        if (baseURL != null && !baseURL.isEmpty()) {
+            driver.get(baseURL);
+        }
+
+        PooledBrowser browser = new PooledBrowser(nextId.incrementAndGet(), driver);
+        all.add(browser);
+        return browser;
+    }
+
+    /** Bloqueia até haver um browser livre (até leaseTimeout). */
+    public PooledBrowser lease() {
+        return lease(null);
+    }
+
+    /**
+     * Como {@link #lease()}, mas devolve primeiro o browser reservado para esta afinidade
+     * (linha anterior da mesma outline), tal como ficou.
+     *
+     * IllegalStateException se a outline já tem um browser e ele não está reservado: outra
+     * linha está a usá-lo, ou seja as linhas não estão a correr uma de cada vez (falta o lock
+     * outline-batch, ver o profile outline-batch no pom).
+     */
+    public PooledBrowser lease(String affinity) {
+        long start = System.nanoTime();
+        firstLeaseNanos.compareAndSet(0, start);
+
+        PooledBrowser browser = affinity == null ? null : parked.remove(affinity);
+        boolean continuation = browser != null;
+        if (!continuation && affinity != null && openBatches.contains(affinity)) {
+            throw new IllegalStateException("Outline row of " + affinity + " arrived without its parked browser: "
+                    + "@batch rows are running concurrently (run with -DOUTLINE_BATCH=true so the outline-batch lock is declared)");
+        }
+        if (continuation) {
+            batchReuses.incrementAndGet();
+        } else {
+            browser = pollIdle(start);
+        }
+
+        long waited = System.nanoTime() - start;
+        leases.incrementAndGet();
+        leaseWaitTotalNanos.addAndGet(waited);
+        leaseWaitMaxNanos.accumulateAndGet(waited, Math::max);
+
+        browser.batchContinuation = continuation;
+        browser.scenariosServed++;
+        return browser;
+    }
+
+    /** Espera por um browser livre; se só houver browsers reservados, limpa um deles e usa-o. */
+    private PooledBrowser pollIdle(long start) {
+        long deadline = start + leaseTimeout.toNanos();
+        try {
+            while (true) {
+                PooledBrowser browser = idle.poll(Math.min(1_000, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())),
+                        TimeUnit.MILLISECONDS);
+                if (browser != null) return browser;
+
+                browser = unpark();
+                if (browser != null) return browser;
+
+                if (System.nanoTime() >= deadline) {
+                    throw new IllegalStateException("No browser available in pool after " + leaseTimeout.toSeconds() + "s (size=" + size + ")");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a browser", e);
+        }
+    }
+
+    private PooledBrowser unpark() {
+        for (String key : parked.keySet()) {
+            PooledBrowser browser = parked.remove(key);
+            if (browser != null) {
+                // a próxima linha desta outline começa do zero (login)
+                openBatches.remove(key);
+                closeSession(browser);
+                try {
+                    reset(browser.driver);
+                    return browser;
+                } catch (RuntimeException e) {
+                    return replace(browser);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Devolve o browser sem limpeza, reservado para a próxima lease com a mesma afinidade
+     * (OUTLINE_BATCH). Sem afinidade, ou se o watchdog o quiser reciclar, é um release normal.
+     */
+    public void release(PooledBrowser browser, String affinity) {
+        if (affinity == null) {
+            release(browser);
+            return;
+        }
+        String recycleReason = watchdog.check(browser);
+        if (recycleReason != null) {
+            System.out.println("[BrowserPool] Recycling browser #" + browser.id + ": " + recycleReason);
+            openBatches.remove(affinity);
+            idle.offer(replace(browser));
+            return;
+        }
+        openBatches.add(affinity);
+        PooledBrowser previous = parked.put(affinity, browser);
+        if (previous != null && previous != browser) {
+            release(previous);
+        }
+    }
+
+    /** A linha falhou e o browser não fica reservado: a próxima linha desta outline faz login. */
+    public void endBatch(String affinity) {
+        openBatches.remove(affinity);
+    }
+
+    /**
+     * Limpa o estado do browser e devolve-o ao pool. Se o {@link DriverWatchdog} o
+     * considerar gasto/doente, ou se a limpeza falhar, é substituído por um novo.
+     */
+    public void release(PooledBrowser browser) {
+        closeSession(browser);
+        String recycleReason = watchdog.check(browser);
+        if (recycleReason != null) {
+            System.out.println("[BrowserPool] Recycling browser #" + browser.id + ": " + recycleReason);
+            idle.offer(replace(browser));
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            reset(browser.driver);
+        } catch (RuntimeException e) {
+            System.err.println("[BrowserPool] Reset failed for browser #" + browser.id + ", replacing it: " + e.getMessage());
+            browser = replace(browser);
+        }
+        long took = System.nanoTime() - start;
+        resets.incrementAndGet();
+        resetTotalNanos.addAndGet(took);
+        resetMaxNanos.accumulateAndGet(took, Math::max);
+
+        idle.offer(browser);
+    }
+
+    private PooledBrowser replace(PooledBrowser broken) {
+        closeSession(broken);
+        all.remove(broken);
+        replaced.incrementAndGet();
+        try {
+            broken.driver.quit();
+        } catch (RuntimeException ignore) {
+            // sessão já morta
+        }
+        return launch();
+    }
+
+    /** A sessão do browser vai ser apagada: liberta o que estava preso a ela. */
+    private static void closeSession(PooledBrowser browser) {
+        AutoCloseable resource = browser.takeSession();
+        if (resource == null) return;
+        try {
+            resource.close();
+        } catch (Exception e) {
+            System.err.println("[BrowserPool] Could not release session of browser #" + browser.id + ": " + e.getMessage());
+        }
+    }
+
+    /** Fecha tabs extra, limpa storage e cookies, e deixa o browser em about:blank. */
+    private void reset(WebDriver driver) {
+        List<String> handles = List.copyOf(driver.getWindowHandles());
+        for (int i = 1; i < handles.size(); i++) {
+            driver.switchTo().window(handles.get(i)).close();
+        }
+        driver.switchTo().window(handles.get(0));
+
+        // sessionStorage/localStorage são por origem: limpa-se enquanto ainda estamos na app
+        try {
+            ((JavascriptExecutor) driver).executeScript(
+                    "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+        } catch (RuntimeException ignore) {
+            // página sem origem (about:blank, data:)
+        }
+
+        if (driver instanceof ChromeDriver chrome) {
+            chrome.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+            String origin = appOrigin();
+            if (origin != null) {
+                chrome.executeCdpCommand("Storage.clearDataForOrigin", Map.of(
+                        "origin", origin,
+                        "storageTypes", "local_storage,indexeddb,cache_storage,service_workers"));
+            }
+        } else {
+            driver.manage().deleteAllCookies();
+        }
+
+        driver.get("about:blank");
+    }
+
+    private String appOrigin() {
+        if (baseURL == null || baseURL.isEmpty()) return null;
+        URI uri = URI.create(baseURL);
+        return uri.getScheme() + "://" + uri.getAuthority();
+    }
+
+    /** Resumo das métricas de lease/reset (para dimensionar BROWSER_POOL_SIZE). */
+    public String stats() {
+        long n = Math.max(1, leases.get());
+        long r = Math.max(1, resets.get());
+        return String.format(
+                "[BrowserPool] size=%d leases=%d (batch reuses=%d) leaseWait avg=%dms max=%dms | resets=%d reset avg=%dms max=%dms | replaced=%d (recycled: %s)",
+                size, leases.get(), batchReuses.get(),
+                TimeUnit.NANOSECONDS.toMillis(leaseWaitTotalNanos.get() / n),
+                TimeUnit.NANOSECONDS.toMillis(leaseWaitMaxNanos.get()),
+                resets.get(),
+                TimeUnit.NANOSECONDS.toMillis(resetTotalNanos.get() / r),
+                TimeUnit.NANOSECONDS.toMillis(resetMaxNanos.get()),
+                replaced.get(), watchdog.stats());
+    }
+
+    /** System.nanoTime() em que o primeiro browser ficou pronto (0 se ainda nenhum). */
+    public long getFirstReadyNanos() {
+        return firstReadyNanos.get();
+    }
+
+    /** System.nanoTime() do primeiro pedido de lease (0 se ainda nenhum). */
+    public long getFirstLeaseNanos() {
+        return firstLeaseNanos.get();
+    }
+
+    private void shutdown() {
+        System.out.println(stats());
+        for (PooledBrowser browser : all) {
+            try {
+                browser.driver.quit();
+            } catch (RuntimeException ignore) {
+                // já fechado
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package utils;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolve o chromedriver uma única vez e guarda o resultado numa cache local em disco,
+ * para que as execuções seguintes (e os workers em paralelo) não precisem de rede.
+ *
+ * Ordem de resolução:
+ *  1) CHROMEDRIVER_PATH configurado explicitamente
+ *  2) cache (DRIVER_CACHE_DIR, omissão ~/.cache/monetis-drivers), por versão major do Chrome instalado
+ *  3) WebDriverManager (só se DRIVER_OFFLINE != true); o caminho obtido fica na cache
+ *
+ * O acesso à cache é protegido por um file lock, por isso várias JVMs podem arrancar ao mesmo tempo.
+ */
+public class ChromeDriverResolver {
+
+    private static final Pattern VERSION = Pattern.compile("(\\d+)\\.\\d+\\.\\d+\\.\\d+");
+    private static final String CACHE_FILE = "chromedriver.properties";
+
+    private static volatile String driverPath;
+    private static volatile long resolutionMillis = -1;
+
+
+    /** Garante que webdriver.chrome.driver está definido. Idempotente e thread-safe. */
+    public static synchronized String resolve() {
+        if (driverPath != null) return driverPath;
+
+        long start = System.nanoTime();
+        String source;
+        String path;
+        String chromeVersion = null;
+
+        String configured = ConfigReader.getProperty("CHROMEDRIVER_PATH");
+        if (configured != null && !configured.isEmpty()) {
+            if (!Files.isExecutable(Path.of(configured))) {
+                throw new IllegalStateException("CHROMEDRIVER_PATH is not an executable file: " + configured);
+            }
+            path = configured;
+            source = "CHROMEDRIVER_PATH";
+        } else {
+            chromeVersion = detectChromeVersion();
+            String key = "chromedriver." + majorVersion(chromeVersion);
+            Path cacheDir = cacheDir();
+
+            try {
+                Files.createDirectories(cacheDir);
+                try (FileChannel channel = FileChannel.open(cacheDir.resolve(CACHE_FILE + ".lock"),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                     FileLock ignored = channel.lock()) {
+
+                    Properties cache = loadCache(cacheDir.resolve(CACHE_FILE));
+                    String cached = cache.getProperty(key);
+
+                    if (cached != null && Files.isExecutable(Path.of(cached))) {
+                        path = cached;
+                        source = "cache";
+                    } else {
+                        if (ConfigReader.getBoolean("DRIVER_OFFLINE", false)) {
+                            throw new IllegalStateException("DRIVER_OFFLINE=true and no cached chromedriver for Chrome "
+                                    + chromeVersion + " in " + cacheDir + ". Set CHROMEDRIVER_PATH or run once with network access.");
+                        }
+                        path = downloadWithWebDriverManager(chromeVersion);
+                        source = "WebDriverManager";
+
+                        cache.setProperty(key, path);
+                        storeCache(cacheDir.resolve(CACHE_FILE), cache);
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not use driver cache in " + cacheDir, e);
+            }
+        }
+
+        System.setProperty("webdriver.chrome.driver", path);
+        driverPath = path;
+        resolutionMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        System.out.println("[ChromeDriverResolver] " + path + " (Chrome " + (chromeVersion == null ? "?" : chromeVersion)
+                + ") resolved from " + source + " in " + resolutionMillis + " ms");
+        return path;
+    }
+
+    /** Tempo que a resolução demorou nesta JVM (-1 se ainda não correu). */
+    public static long getResolutionMillis() {
+        return resolutionMillis;
+    }
+
+    private static String downloadWithWebDriverManager(String chromeVersion) {
+        WebDriverManager wdm = WebDriverManager.chromedriver();
+        if (chromeVersion != null) {
+            wdm.browserVersion(majorVersion(chromeVersion));
+        }
+        wdm.setup();
+        return wdm.getDownloadedDriverPath();
+    }
+
+    private static Path cacheDir() {
+        String dir = ConfigReader.getProperty("DRIVER_CACHE_DIR");
+        if (dir != null && !dir.isEmpty()) return Path.of(dir);
+        return Path.of(System.getProperty("user.home"), ".cache", "monetis-drivers");
+    }
+
+    private static Properties loadCache(Path file) throws IOException {
+        Properties cache = new Properties();
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                cache.load(in);
+            }
+        }
+        return cache;
+    }
+
+    private static void storeCache(Path file, Properties cache) throws IOException {
+        Path tmp = file.resolveSibling(CACHE_FILE + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            cache.store(out, "chromedriver per Chrome major version");
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static String majorVersion(String chromeVersion) {
+        if (chromeVersion == null) return "unknown";
+        return chromeVersion.substring(0, chromeVersion.indexOf('.'));
+    }
+
+    // ---------- Versão do Chrome instalado (sem rede) ----------
+    static String detectChromeVersion() {
+        String binary = ConfigReader.getProperty("CHROME_BINARY");
+        String os = System.getProperty("os.name", "").toLowerCase();
+
+        List<List<String>> candidates;
+        if (binary != null && !binary.isEmpty()) {
+            candidates = List.of(List.of(binary, "--version"));
+        } else if (os.contains("win")) {
+            candidates = List.of(
+                    List.of("reg", "query", "HKEY_CURRENT_USER\\Software\\Google\\Chrome\\BLBeacon", "/v", "version"),
+                    List.of("reg", "query", "HKEY_LOCAL_MACHINE\\SOFTWARE\\Wow6432Node\\Microsoft\\Windows\\CurrentVersion\\Uninstall\\Google Chrome", "/v", "version"));
+        } else if (os.contains("mac")) {
+            candidates = List.of(List.of("/Applications/Google Chrome.app/Contents/MacOS/Google Chrome", "--version"));
+        } else {
+            candidates = List.of(
+                    List.of("google-chrome", "--version"),
+                    List.of("google-chrome-stable", "--version"),
+                    List.of("chromium", "--version"),
+                    List.of("chromium-browser", "--version"));
+        }
+
+        for (List<String> command : candidates) {
+            String version = runForVersion(command);
+            if (version != null) return version;
+        }
+        return null;
+    }
+
+    private static String runForVersion(List<String> command) {
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return null;
+            }
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            Matcher m = VERSION.matcher(output);
+            return m.find() ? m.group() : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
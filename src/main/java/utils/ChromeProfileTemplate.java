@@ -0,0 +1,295 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Perfil Chrome "modelo", preparado uma vez por execução (PROFILE_TEMPLATE=true):
+ *  - cache HTTP já com o bundle da SPA (landing + registo abertos uma vez)
+ *  - consentimento de cookies já dado (o banner foi fechado no modelo)
+ *
+ * Cada sessão nova arranca numa cópia do modelo (--user-data-dir), por isso o primeiro load
+ * vem da cache. O consentimento também é guardado à parte (consent.json) e reposto em cada
+ * documento via CDP: o reset do BrowserPool limpa o storage, mas o banner não volta.
+ *
+ * Diretório: PROFILE_TEMPLATE_DIR (omissão target/chrome-profile-template).
+ *
+ * Vários JVMs (forks do modo sharded, workers do scheduler) partilham o mesmo modelo, com um
+ * file lock ao lado do diretório (&lt;dir&gt;.lock): quem o prepara tem o lock exclusivo e marca-o
+ * como pronto (&lt;dir&gt;.ready); quem o usa fica com o lock partilhado até ao fim da JVM. Assim o
+ * primeiro JVM de uma execução prepara o modelo, os outros esperam e reaproveitam-no, e ninguém
+ * o apaga enquanto outro JVM ainda está a clonar a partir dele.
+ */
+public class ChromeProfileTemplate {
+
+    /** Botões de fechar/aceitar do banner de cookies (mesmo seletor do RegisterPage). */
+    public static final String COOKIE_BANNER_CSS =
+            "[id*='cookie' i] [aria-label*='close' i], [class*='cookie' i] [aria-label*='close' i], " +
+                    "[id*='cookie' i] button, [class*='cookie' i] button";
+
+    private static final String DEFAULT_DIR = "target/chrome-profile-template";
+    private static final String CONSENT_FILE = "consent.json";
+
+    // ficheiros de lock do Chrome: não podem ir para a cópia
+    private static final List<String> SKIPPED = List.of("SingletonLock", "SingletonSocket", "SingletonCookie", "lockfile");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final List<Path> clones = new CopyOnWriteArrayList<>();
+
+    private static Path template;
+    private static Map<String, Object> consent = Map.of();
+    // lock partilhado sobre o modelo, mantido até ao fim da JVM
+    private static FileLock inUse;
+
+    private ChromeProfileTemplate() {
+    }
+
+    public static boolean isEnabled() {
+        return ConfigReader.getBoolean("PROFILE_TEMPLATE", false);
+    }
+
+    /** true se o consentimento já vem do modelo: as páginas podem saltar a procura do banner. */
+    public static synchronized boolean consentSeeded() {
+        return template != null && !consent.isEmpty();
+    }
+
+    /** Cópia nova do modelo para uma sessão (o modelo é preparado na primeira chamada). */
+    public static Path cloneForSession() {
+        Path source = template();
+        try {
+            Path clone = Files.createTempDirectory("monetis-profile-");
+            long start = System.nanoTime();
+            copy(source, clone);
+            clones.add(clone);
+            System.out.printf("[ChromeProfileTemplate] profile cloned in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+            return clone;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not clone Chrome profile template " + source, e);
+        }
+    }
+
+    /** Repõe o consentimento em cada documento da app, antes dos scripts da página. */
+    public static void applyConsent(WebDriver driver) {
+        Map<String, Object> state;
+        synchronized (ChromeProfileTemplate.class) {
+            state = consent;
+        }
+        if (state.isEmpty() || !(driver instanceof ChromeDriver chrome)) return;
+
+        try {
+            String script = "(function (c) {"
+                    + "  if (location.origin !== c.origin) return;"
+                    + "  try { Object.keys(c.localStorage).forEach(function (k) {"
+                    + "    if (localStorage.getItem(k) === null) localStorage.setItem(k, c.localStorage[k]); }); } catch (e) {}"
+                    + "  Object.keys(c.cookies).forEach(function (k) {"
+                    + "    if (document.cookie.indexOf(k + '=') < 0) document.cookie = k + '=' + c.cookies[k] + '; path=/'; });"
+                    + "})(" + MAPPER.writeValueAsString(state) + ");";
+            chrome.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument", Map.of("source", script));
+        } catch (IOException e) {
+            System.err.println("[ChromeProfileTemplate] Could not apply consent: " + e.getMessage());
+        }
+    }
+
+    private static synchronized Path template() {
+        if (template == null) {
+            Path dir = Path.of(ConfigReader.getProperty("PROFILE_TEMPLATE_DIR", DEFAULT_DIR)).toAbsolutePath();
+            long start = System.nanoTime();
+            consent = acquire(dir);
+            template = dir;
+            Runtime.getRuntime().addShutdownHook(new Thread(ChromeProfileTemplate::deleteClones, "profile-clone-cleanup"));
+            System.out.printf("[ChromeProfileTemplate] template ready in %d ms (consent keys: %s)%n",
+                    (System.nanoTime() - start) / 1_000_000, consent.isEmpty() ? "none" : consent.keySet());
+        }
+        return template;
+    }
+
+    /**
+     * Prepara o modelo se nenhum outro JVM o estiver a usar (execução nova), ou espera que o
+     * JVM que o está a preparar acabe e reaproveita-o. Fica com o lock partilhado até ao fim.
+     */
+    private static Map<String, Object> acquire(Path dir) {
+        Path lockFile = dir.resolveSibling(dir.getFileName() + ".lock");
+        Path ready = dir.resolveSibling(dir.getFileName() + ".ready");
+        try {
+            Files.createDirectories(dir.getParent());
+            FileChannel channel = FileChannel.open(lockFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            while (true) {
+                FileLock exclusive = channel.tryLock();
+                if (exclusive != null) {
+                    Map<String, Object> state;
+                    try {
+                        Files.deleteIfExists(ready);
+                        state = prepare(dir);
+                        Files.writeString(ready, ProcessHandle.current().pid() + " " + Instant.now());
+                    } finally {
+                        exclusive.release();
+                    }
+                    inUse = channel.lock(0, Long.MAX_VALUE, true);
+                    return state;
+                }
+
+                // outro JVM está a preparar (ou a usar) o modelo: espera e reaproveita-o
+                FileLock shared = channel.lock(0, Long.MAX_VALUE, true);
+                if (Files.exists(ready)) {
+                    inUse = shared;
+                    System.out.println("[ChromeProfileTemplate] reusing template prepared by another JVM");
+                    return readConsent(dir);
+                }
+                // a preparação falhou no outro JVM: tenta aqui
+                shared.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not lock Chrome profile template " + dir, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readConsent(Path dir) {
+        Path file = dir.resolve(CONSENT_FILE);
+        if (!Files.exists(file)) return Map.of();
+        try {
+            return MAPPER.readValue(file.toFile(), Map.class);
+        } catch (IOException e) {
+            System.err.println("[ChromeProfileTemplate] Could not read " + file + ": " + e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /** Abre a app num Chrome com o perfil modelo, aceita o banner e guarda o que mudou no storage. */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> prepare(Path dir) {
+        String base = ConfigReader.getProperty("BASE_URL");
+        try {
+            deleteRecursively(dir);
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create " + dir, e);
+        }
+        if (base == null || base.isEmpty()) return Map.of();
+
+        ChromeOptions options = BrowserOptions.base();
+        options.addArguments("--user-data-dir=" + dir);
+        WebDriver driver = new ChromeDriver(options);
+        try {
+            JavascriptExecutor js = (JavascriptExecutor) driver;
+            driver.get(base);
+            waitForLoad(js);
+
+            Map<String, Object> before = (Map<String, Object>) js.executeScript(STORAGE_SNAPSHOT);
+            js.executeScript("document.querySelectorAll(arguments[0]).forEach(function (b) {"
+                    + " if (b.offsetParent !== null) b.click(); });", COOKIE_BANNER_CSS);
+            Thread.sleep(300);
+            Map<String, Object> after = (Map<String, Object>) js.executeScript(STORAGE_SNAPSHOT);
+
+            // bundle do registo também fica em cache (rota com chunks próprios)
+            String register = ConfigReader.getProperty("REGISTER_URL");
+            if (register != null && !register.isEmpty()) {
+                driver.get(register);
+                waitForLoad(js);
+            }
+
+            Map<String, Object> state = new HashMap<>();
+            Map<String, Object> local = diff((Map<String, Object>) before.get("local"), (Map<String, Object>) after.get("local"));
+            Map<String, Object> cookies = diff((Map<String, Object>) before.get("cookies"), (Map<String, Object>) after.get("cookies"));
+            if (local.isEmpty() && cookies.isEmpty()) return Map.of();
+
+            state.put("origin", after.get("origin"));
+            state.put("localStorage", local);
+            state.put("cookies", cookies);
+            MAPPER.writerWithDefaultPrettyPrinter().writeValue(dir.resolve(CONSENT_FILE).toFile(), state);
+            return state;
+        } catch (IOException e) {
+            System.err.println("[ChromeProfileTemplate] Could not save consent state: " + e.getMessage());
+            return Map.of();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Map.of();
+        } finally {
+            // quit() grava a cache e o storage no disco antes de o modelo ser copiado
+            driver.quit();
+        }
+    }
+
+    private static final String STORAGE_SNAPSHOT = "var local = {}, cookies = {};"
+            + "for (var i = 0; i < localStorage.length; i++) { var k = localStorage.key(i); local[k] = localStorage.getItem(k); }"
+            + "document.cookie.split('; ').forEach(function (c) { var p = c.indexOf('='); if (p > 0) cookies[c.substring(0, p)] = c.substring(p + 1); });"
+            + "return {origin: location.origin, local: local, cookies: cookies};";
+
+    private static Map<String, Object> diff(Map<String, Object> before, Map<String, Object> after) {
+        Map<String, Object> changed = new HashMap<>();
+        after.forEach((k, v) -> {
+            if (!v.equals(before.get(k))) changed.put(k, v);
+        });
+        return changed;
+    }
+
+    private static void waitForLoad(JavascriptExecutor js) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (!"complete".equals(js.executeScript("return document.readyState"))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        // chunks carregados depois do load (lazy routes)
+        Thread.sleep(500);
+    }
+
+    private static void copy(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!SKIPPED.contains(file.getFileName().toString()) && attrs.isRegularFile()) {
+                    Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void deleteClones() {
+        for (Path clone : clones) {
+            try {
+                deleteRecursively(clone);
+            } catch (IOException ignore) {
+                // Chrome ainda a fechar: fica no temp do sistema
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
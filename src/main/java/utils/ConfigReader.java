@@ -1,24 +1,63 @@
 package utils;
 
+import io.github.cdimascio.dotenv.Dotenv;
+
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Properties;
 
+/**
+ * Leitura de configuração por camadas (a primeira que tiver a chave ganha):
+ *  1) system property (-DKEY=...)
+ *  2) variável de ambiente / .env
+ *  3) src/test/config/monetis.properties (ou o ficheiro indicado em -Dconfig.file)
+ */
 public class ConfigReader {
-        private static Properties properties;
+        private static final String DEFAULT_FILE = "src/test/config/monetis.properties";
+        private static final String LEGACY_FILE = "config.properties";
+
+        private static final Properties properties = new Properties();
+        private static final Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
 
         static {
-            try {
-                FileInputStream fis = new FileInputStream("config.properties");
-                properties = new Properties();
+            String file = System.getProperty("config.file", DEFAULT_FILE);
+            if (!Files.exists(Path.of(file)) && Files.exists(Path.of(LEGACY_FILE))) {
+                file = LEGACY_FILE;
+            }
+            try (FileInputStream fis = new FileInputStream(file)) {
                 properties.load(fis);
             } catch (IOException e) {
-                e.printStackTrace();
+                System.err.println("[ConfigReader] Could not read " + file + ": " + e.getMessage());
             }
         }
 
         public static String getProperty(String key) {
-            return properties.getProperty(key);
+            String value = System.getProperty(key);
+            if (value == null) value = dotenv.get(key);
+            if (value == null) value = properties.getProperty(key);
+            return value == null ? null : value.trim();
+        }
+
+        public static String getProperty(String key, String fallback) {
+            String value = getProperty(key);
+            return value == null || value.isEmpty() ? fallback : value;
+        }
+
+        public static int getInt(String key, int fallback) {
+            String value = getProperty(key);
+            if (value == null || value.isEmpty()) return fallback;
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                return fallback;
+            }
+        }
+
+        public static boolean getBoolean(String key, boolean fallback) {
+            String value = getProperty(key);
+            return value == null || value.isEmpty() ? fallback : Boolean.parseBoolean(value);
         }
     }
 
@@ -1,27 +1,31 @@
 package utils;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 
 
 public class DriverManager {
-    private static WebDriver driver;
+    // um driver por thread: sessões nunca são partilhadas entre workers
+    private static final ThreadLocal<WebDriver> driver = new ThreadLocal<>();
 
     public static WebDriver getDriver() {
-        if (driver == null) {
-            WebDriverManager.chromedriver().setup();
-            driver = new ChromeDriver();
-            driver.manage().window().maximize();
+        if (driver.get() == null) {
+            ChromeDriverResolver.resolve();
+            WebDriver created = new ChromeDriver(BrowserOptions.chrome());
+            if (ChromeProfileTemplate.isEnabled()) {
+                ChromeProfileTemplate.applyConsent(created);
+            }
+            BrowserOptions.applyWindow(created);
+            driver.set(created);
         }
-        return driver;
+        return driver.get();
     }
 
     public static void quitDriver() {
-        if (driver != null) {
-            driver.quit();
-            driver = null;
+        WebDriver current = driver.get();
+        if (current != null) {
+            driver.remove();
+            current.quit();
         }
     }
 }
-
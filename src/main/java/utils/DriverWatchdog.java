@@ -0,0 +1,98 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verifica a saúde de um browser do pool entre cenários.
+ *
+ * Um browser é reciclado (quit + novo launch) quando:
+ *  - já serviu DRIVER_MAX_SCENARIOS cenários (omissão 50)
+ *  - o heap JS do renderer passa DRIVER_MAX_HEAP_MB (omissão 512)
+ *  - o probe (um executeScript trivial) não responde em DRIVER_PROBE_TIMEOUT_MS (omissão 5000) ou falha
+ *
+ * A verificação corre no release, por isso a reciclagem acontece sempre antes do
+ * próximo cenário e nunca a meio de um.
+ */
+public class DriverWatchdog {
+
+    private static final String HEAP_PROBE =
+            "return (window.performance && performance.memory) ? performance.memory.usedJSHeapSize : -1;";
+
+    private final int maxScenarios;
+    private final long maxHeapBytes;
+    private final long probeTimeoutMillis;
+    private final ExecutorService probes = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "driver-watchdog-probe");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<String, AtomicLong> recycledByReason = new ConcurrentHashMap<>();
+
+
+    public DriverWatchdog() {
+        this.maxScenarios = ConfigReader.getInt("DRIVER_MAX_SCENARIOS", 50);
+        this.maxHeapBytes = ConfigReader.getInt("DRIVER_MAX_HEAP_MB", 512) * 1024L * 1024L;
+        this.probeTimeoutMillis = ConfigReader.getInt("DRIVER_PROBE_TIMEOUT_MS", 5000);
+    }
+
+    /** Devolve o motivo para reciclar o browser, ou null se estiver saudável. */
+    public String check(BrowserPool.PooledBrowser browser) {
+        String reason = inspect(browser);
+        if (reason != null) {
+            recycledByReason.computeIfAbsent(reason.split(" ")[0], k -> new AtomicLong()).incrementAndGet();
+        }
+        return reason;
+    }
+
+    private String inspect(BrowserPool.PooledBrowser browser) {
+        if (maxScenarios > 0 && browser.getScenariosServed() >= maxScenarios) {
+            return "scenarios " + browser.getScenariosServed() + " >= " + maxScenarios;
+        }
+
+        long heap;
+        try {
+            heap = probeHeap(browser.getDriver());
+        } catch (TimeoutException e) {
+            return "unresponsive (no answer in " + probeTimeoutMillis + " ms)";
+        } catch (ExecutionException e) {
+            return "probe-failed " + e.getCause().getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        if (maxHeapBytes > 0 && heap > maxHeapBytes) {
+            return "heap " + heap / (1024 * 1024) + "MB > " + maxHeapBytes / (1024 * 1024) + "MB";
+        }
+        return null;
+    }
+
+    private long probeHeap(WebDriver driver) throws InterruptedException, ExecutionException, TimeoutException {
+        Future<Object> probe = probes.submit(() -> ((JavascriptExecutor) driver).executeScript(HEAP_PROBE));
+        try {
+            Object result = probe.get(probeTimeoutMillis, TimeUnit.MILLISECONDS);
+            return result instanceof Number n ? n.longValue() : -1;
+        } catch (TimeoutException e) {
+            probe.cancel(true);
+            throw e;
+        }
+    }
+
+    /** Ex.: "scenarios=3 heap=1 unresponsive=0". */
+    public String stats() {
+        StringBuilder sb = new StringBuilder();
+        recycledByReason.forEach((reason, count) -> sb.append(reason).append('=').append(count.get()).append(' '));
+        return sb.length() == 0 ? "none" : sb.toString().trim();
+    }
+}
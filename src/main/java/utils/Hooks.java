@@ -1,75 +1,193 @@
 package utils;
 
+import api.TestUserPool;
 import io.github.cdimascio.dotenv.Dotenv;
-import lombok.Getter;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import io.github.bonigarcia.wdm.WebDriverManager;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
+
+import java.util.BitSet;
+
+
+/**
+ * Ciclo de vida do browser por cenário.
+ *
+ * Cada thread (worker) tem o seu próprio WebDriver, guardado num ThreadLocal:
+ * dois cenários a correr ao mesmo tempo nunca partilham a mesma sessão.
+ * O browser vem do {@link BrowserPool} no @Before e é devolvido (limpo) no @After.
+ * Com BROWSER_ISOLATION=context cada cenário recebe antes um contexto isolado
+ * dentro de um único Chrome ({@link BrowserContexts}).
+ *
+ * OUTLINE_BATCH=true: as linhas de uma Scenario Outline com @batch reaproveitam o browser
+ * (e a sessão autenticada) da linha anterior; os steps perguntam {@link #isBatchContinuation()}
+ * para saltar o login. Cada linha continua a ser um cenário com resultado próprio.
+ * As linhas não correm necessariamente pela ordem dos Examples: a primeira a correr faz o
+ * login e qualquer outra pode continuar a sessão, por isso nenhuma linha depende de outra.
+ */
+public class Hooks {
 
-import java.time.Duration;
-
-import static org.apache.logging.log4j.core.util.ExecutorServices.ensureInitialized;
+    private static final ThreadLocal<BrowserPool.PooledBrowser> BROWSER = new ThreadLocal<>();
+    private static final ThreadLocal<String> OUTLINE = new ThreadLocal<>();
 
+    // BROWSER_ISOLATION=context: cada lease tem um id novo, por isso o workerId usa um slot
+    // (o mais baixo livre), que se repete de cenário para cenário
+    private static final BitSet CONTEXT_SLOTS = new BitSet();
+    private static final ThreadLocal<Integer> CONTEXT_SLOT = new ThreadLocal<>();
 
-public class Hooks {
-
-    @Getter
-    public static WebDriver driver;
-    public static String baseURL;
+    public static volatile String baseURL;
 
 
     @Before(order = 0)
-    public void setUp() {
+    public void setUp(Scenario scenario) {
+        OUTLINE.set(batchKey(scenario));
 
         ensureInitialized();  // garante driver + BASE_URL
-        if (baseURL != null && !baseURL.isEmpty()) {
+        if (isBatchContinuation()) return;  // fica onde a linha anterior deixou
+
+        WebDriver driver = getDriver();
+        if (baseURL != null && !baseURL.isEmpty() && !sameUrl(baseURL, driver.getCurrentUrl())) {
             driver.get(baseURL);
         }
     }
 
-    public static synchronized void ensureInitialized() {
-        if (driver != null) return;
-
-        Dotenv dotenv = Dotenv.load();
-        baseURL = dotenv.get("BASE_URL");
-
+    /** Faz lease de um browser para a thread atual (se ainda não tiver um). */
+    public static void ensureInitialized() {
+        if (BROWSER.get() != null) return;
+
+        loadEnvironment();
+        if (BrowserContexts.isEnabled()) {
+            BROWSER.set(BrowserContexts.get().lease());
+            synchronized (CONTEXT_SLOTS) {
+                int slot = CONTEXT_SLOTS.nextClearBit(0);
+                CONTEXT_SLOTS.set(slot);
+                CONTEXT_SLOT.set(slot);
+            }
+        } else {
+            BrowserPool.PooledBrowser browser = BrowserPool.get().lease(OUTLINE.get());
+            BROWSER.set(browser);
+            // continuação: a conta em que o browser está autenticado vem com ele
+            if (browser.takeSession() instanceof TestUserPool.Lease lease) {
+                TestUserPool.attach(lease);
+            }
+        }
+    }
 
+    /** true se o browser atual vem da linha anterior da mesma outline, já autenticado. */
+    public static boolean isBatchContinuation() {
+        BrowserPool.PooledBrowser browser = BROWSER.get();
+        return browser != null && browser.isBatchContinuation();
+    }
 
-        WebDriverManager.chromedriver().setup();
-        driver = new ChromeDriver();
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-        driver.manage().window().maximize();
+    /** Outline @batch com OUTLINE_BATCH=true: chave comum a todas as linhas de Examples. */
+    private static String batchKey(Scenario scenario) {
+        if (BrowserContexts.isEnabled()
+                || !ConfigReader.getBoolean("OUTLINE_BATCH", false)
+                || !scenario.getSourceTagNames().contains("@batch")) {
+            return null;
+        }
+        return scenario.getUri() + "#" + scenario.getName();
+    }
 
+    /** Arranca o backend de browsers sem fazer lease (BrowserBootstrap, workers do ScenarioCoordinator). */
+    public static void warmUp() {
+        loadEnvironment();
+        if (BrowserContexts.isEnabled()) {
+            BrowserContexts.get();
+        } else {
+            BrowserPool.get();
+        }
+    }
 
-// Abre a homepage (fallback caso não uses REGISTER_URL direto no step)
+    static synchronized void loadEnvironment() {
+        if (baseURL != null) return;
 
-        if (baseURL != null && !baseURL.isEmpty()) {
-            driver.get(baseURL);
-        }
+        Dotenv dotenv = Dotenv.load();
+        baseURL = dotenv.get("BASE_URL");
+    }
 
+    /** Browsers acabados de lançar já estão na landing page (ver BrowserPool); evita um segundo load. */
+    private static boolean sameUrl(String expected, String current) {
+        if (current == null) return false;
+        return current.replaceAll("/+$", "").equals(expected.replaceAll("/+$", ""));
     }
 
     @After
 
-    public void tearDown() {
-//        if (driver != null) {
-//            driver.quit();
-//        }
+    public void tearDown(Scenario scenario) {
+        release(scenario.isFailed());
     }
 
-
-    public static WebDriver getDriver() {
-        return driver;
+    /** Devolve o browser (e a conta de teste) da thread atual; também para quem não é Cucumber (TestNG). */
+    public static void release(boolean failed) {
+        BrowserPool.PooledBrowser browser = BROWSER.get();
+        // linha falhada não passa o estado à seguinte: release normal (com reset)
+        String batch = OUTLINE.get();
+        String outline = failed ? null : batch;
+        OUTLINE.remove();
+        if (failed && batch != null) {
+            BrowserPool.get().endBatch(batch);
+        }
+        if (browser != null && outline != null && !BrowserContexts.isEnabled()) {
+            // o browser fica reservado ainda autenticado: a conta fica presa a ele até ao reset
+            browser.keepWithSession(TestUserPool.detachCurrent());
+        } else {
+            TestUserPool.releaseCurrent();
+        }
+        if (browser != null) {
+            invalidateSnapshotIfLoggedOut(browser.getDriver());
+            BROWSER.remove();
+            if (BrowserContexts.isEnabled()) {
+                releaseContextSlot();
+                BrowserContexts.get().release(browser);
+            } else {
+                BrowserPool.get().release(browser, outline);
+            }
+        }
     }
 
 
-}
-
-
+    private static void releaseContextSlot() {
+        Integer slot = CONTEXT_SLOT.get();
+        if (slot == null) return;
+        CONTEXT_SLOT.remove();
+        synchronized (CONTEXT_SLOTS) {
+            CONTEXT_SLOTS.clear(slot);
+        }
+    }
 
+    /** Cenário acabou em /login: a sessão restaurada/capturada já não é válida. */
+    private static void invalidateSnapshotIfLoggedOut(WebDriver driver) {
+        try {
+            String url = driver.getCurrentUrl();
+            if (url != null && url.contains("/login")) {
+                SessionSnapshots.invalidateCurrent();
+            }
+        } catch (RuntimeException ignore) {
+            // browser em mau estado: o watchdog trata disso no release
+        }
+        SessionSnapshots.clearCurrent();
+    }
 
+    /**
+     * Identificador estável do worker: fork/JVM (shard.index ou worker.id) + browser do pool
+     * (ou o slot, com BROWSER_ISOLATION=context). Usado para separar os snapshots de sessão por worker.
+     */
+    public static String workerId() {
+        String jvm = System.getProperty("shard.index", System.getProperty("worker.id", "0"));
+        Integer slot = CONTEXT_SLOT.get();
+        if (slot != null) {
+            return jvm + "-c" + slot;
+        }
+        BrowserPool.PooledBrowser browser = BROWSER.get();
+        return jvm + "-" + (browser == null ? 0 : browser.getId());
+    }
 
+    /** Driver do cenário que está a correr na thread atual. */
+    public static WebDriver getDriver() {
+        BrowserPool.PooledBrowser browser = BROWSER.get();
+        return browser == null ? null : browser.getDriver();
+    }
 
 
+}
@@ -0,0 +1,113 @@
+package utils;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Identidades únicas para registo (email, telefone, código postal), seguras entre threads.
+ *
+ * Cada identidade tem um id de uma sequência partilhada por todas as JVMs (forks, workers do
+ * scheduler) e por todas as execuções: IDENTITY_SEQUENCE_FILE (omissão identity-sequence), com
+ * file lock, de onde cada JVM reserva blocos de ids. Email, telefone e código postal saem todos
+ * desse id, por isso nenhum dos três se repete enquanto a sequência não der a volta
+ * (9 milhões de registos). O email leva também o prefixo da execução (tempo + pid em base 36).
+ * Sem acesso ao ficheiro a sequência fica por JVM, a começar num ponto derivado desse prefixo.
+ *
+ * Formatos iguais aos do .env que o formulário já aceita: telefone com 9 dígitos a começar
+ * por 9 e código postal "1234-567" (primeiro dígito 1-9, como os códigos portugueses).
+ * Domínio do email: IDENTITY_EMAIL_DOMAIN (omissão example.com).
+ */
+public class IdentityGenerator {
+
+    private static final long PHONE_SPACE = 100_000_000L;   // "9" + 8 dígitos
+    private static final long POSTAL_FIRST = 1_000_000L;    // "1000-000"
+    private static final long POSTAL_SPACE = 9_000_000L;    // até "9999-999"
+    private static final int BLOCK_SIZE = 100;
+    private static final String DEFAULT_SEQUENCE_FILE = "identity-sequence";
+
+    private static final String RUN_ID =
+            Long.toString(System.currentTimeMillis(), 36) + Long.toString(ProcessHandle.current().pid(), 36);
+    private static final AtomicLong FALLBACK = new AtomicLong(Math.floorMod((long) RUN_ID.hashCode(), POSTAL_SPACE));
+
+    private static final Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+
+    // bloco de ids reservado por esta JVM: [blockNext, blockEnd)
+    private static long blockNext;
+    private static long blockEnd;
+
+    /** Dados de registo completos; nome/morada/password vêm do .env, o resto é único. */
+    public record Identity(String firstName, String lastName, String email, String phone,
+                           String street, String postalCode, String city, String country,
+                           String password) {
+    }
+
+    private IdentityGenerator() {
+    }
+
+    public static Identity next() {
+        long n = nextId();
+        String password = dotenv.get("PASSWORD", "testingPassword!1");
+        return new Identity(
+                dotenv.get("name", "Testing"),
+                dotenv.get("surname", "Account"),
+                email(n),
+                phone(n),
+                dotenv.get("street_address", "Some Random street"),
+                postalCode(n),
+                dotenv.get("city", "Lisbon"),
+                dotenv.get("countryTEXT", "Portugal"),
+                password);
+    }
+
+    public static String email(long n) {
+        String domain = ConfigReader.getProperty("IDENTITY_EMAIL_DOMAIN", "example.com");
+        return "monetis." + RUN_ID + "." + n + "@" + domain;
+    }
+
+    public static String phone(long n) {
+        return "9" + String.format("%08d", Math.floorMod(n, PHONE_SPACE));
+    }
+
+    public static String postalCode(long n) {
+        String digits = Long.toString(POSTAL_FIRST + Math.floorMod(n, POSTAL_SPACE));
+        return digits.substring(0, 4) + "-" + digits.substring(4);
+    }
+
+    private static synchronized long nextId() {
+        if (blockNext == blockEnd) {
+            blockNext = reserveBlock();
+            blockEnd = blockNext + BLOCK_SIZE;
+        }
+        return blockNext++;
+    }
+
+    /** Reserva BLOCK_SIZE ids na sequência partilhada; devolve o primeiro. */
+    private static long reserveBlock() {
+        Path file = Path.of(ConfigReader.getProperty("IDENTITY_SEQUENCE_FILE", DEFAULT_SEQUENCE_FILE)).toAbsolutePath();
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+
+            ByteBuffer buffer = ByteBuffer.allocate(32);
+            channel.read(buffer, 0);
+            String text = new String(buffer.array(), 0, buffer.position(), StandardCharsets.US_ASCII).trim();
+            // primeira execução nesta máquina: começa num ponto derivado da execução, não em 0
+            long start = text.isEmpty() ? FALLBACK.get() : Long.parseLong(text);
+
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(Long.toString(start + BLOCK_SIZE).getBytes(StandardCharsets.US_ASCII)), 0);
+            return start;
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("[IdentityGenerator] Could not use " + file + ", using a per-run sequence: " + e.getMessage());
+            return FALLBACK.getAndAdd(BLOCK_SIZE);
+        }
+    }
+}
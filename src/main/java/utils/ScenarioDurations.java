@@ -0,0 +1,117 @@
+package utils;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Plugin Cucumber que guarda a duração de cada cenário para as execuções seguintes
+ * (usado pelo sharding por duração, ver runners.ShardPlanner).
+ *
+ * Ficheiro: SCENARIO_HISTORY (omissão scenario-durations.properties na raiz do projeto),
+ * chave "features/X.feature:linha" -> ms. Cada execução entra numa média móvel
+ * (metade histórico, metade nova medição). Vários forks podem escrever ao mesmo
+ * tempo: o merge é feito com file lock.
+ */
+public class ScenarioDurations implements ConcurrentEventListener {
+
+    private static final String DEFAULT_FILE = "scenario-durations.properties";
+
+    private final Map<String, Long> observed = new ConcurrentHashMap<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseFinished.class, this::record);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> merge());
+    }
+
+    private void record(TestCaseFinished event) {
+        if (event.getResult().getStatus() == Status.SKIPPED) return;
+        observed.put(key(event.getTestCase().getUri(), event.getTestCase().getLocation().getLine()),
+                event.getResult().getDuration().toMillis());
+    }
+
+    /** Chave estável entre classpath:/file: — "features/Payments.feature:23". */
+    public static String key(URI uri, long line) {
+        return key(uri.toString(), line);
+    }
+
+    public static String key(String uri, long line) {
+        String path = uri.replace('\\', '/');
+        int i = path.lastIndexOf("features/");
+        if (i >= 0) {
+            path = path.substring(i);
+        } else if (path.startsWith("classpath:")) {
+            path = path.substring("classpath:".length());
+        }
+        return path + ":" + line;
+    }
+
+    public static Path historyFile() {
+        return Path.of(ConfigReader.getProperty("SCENARIO_HISTORY", DEFAULT_FILE));
+    }
+
+    /** Durações conhecidas (ms); vazio se ainda não há histórico. */
+    public static Map<String, Long> load() {
+        Map<String, Long> history = new HashMap<>();
+        Path file = historyFile();
+        if (!Files.exists(file)) return history;
+
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+        } catch (IOException e) {
+            System.err.println("[ScenarioDurations] Could not read " + file + ": " + e.getMessage());
+            return history;
+        }
+        for (String name : props.stringPropertyNames()) {
+            try {
+                history.put(name, Long.parseLong(props.getProperty(name).trim()));
+            } catch (NumberFormatException ignore) {
+                // linha inválida, ignora
+            }
+        }
+        return history;
+    }
+
+    private void merge() {
+        if (observed.isEmpty()) return;
+
+        Path file = historyFile().toAbsolutePath();
+        Path lock = file.resolveSibling(file.getFileName() + ".lock");
+        try (FileChannel channel = FileChannel.open(lock, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+
+            Map<String, Long> history = load();
+            observed.forEach((key, ms) -> history.merge(key, ms, (old, now) -> (old + now) / 2));
+
+            Properties props = new Properties();
+            history.forEach((key, ms) -> props.setProperty(key, Long.toString(ms)));
+
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, "Scenario durations in ms (moving average), used for duration-balanced sharding");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.err.println("[ScenarioDurations] Could not update " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package utils;
+
+import api.AuthApi;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.net.HttpCookie;
+import java.util.Date;
+
+/**
+ * Coloca no browser uma sessão obtida pela API (cookies + token), para abrir
+ * páginas autenticadas sem passar pelo formulário de login.
+ *
+ * O token (se existir) vai para o localStorage na chave API_TOKEN_STORAGE_KEY (omissão "token").
+ */
+public class SessionInjector {
+
+    private static final String DEFAULT_TOKEN_KEY = "token";
+
+    private SessionInjector() {
+    }
+
+    /** Injeta a sessão na origem da app e abre o path indicado (ex.: "/dashboard"). */
+    public static void inject(WebDriver driver, AuthApi.Session session, String path) {
+        String base = appBaseUrl();
+
+        // cookies/localStorage só podem ser escritos estando já na origem da app
+        if (driver.getCurrentUrl() == null || !driver.getCurrentUrl().startsWith(base)) {
+            driver.get(base);
+        }
+
+        for (HttpCookie cookie : session.cookies()) {
+            driver.manage().addCookie(toSelenium(cookie));
+        }
+        if (session.token() != null) {
+            ((JavascriptExecutor) driver).executeScript(
+                    "window.localStorage.setItem(arguments[0], arguments[1]);",
+                    ConfigReader.getProperty("API_TOKEN_STORAGE_KEY", DEFAULT_TOKEN_KEY), session.token());
+        }
+
+        driver.navigate().to(base + "/" + path.replaceAll("^/+", ""));
+    }
+
+    private static Cookie toSelenium(HttpCookie cookie) {
+        Cookie.Builder builder = new Cookie.Builder(cookie.getName(), cookie.getValue())
+                .path(cookie.getPath() == null ? "/" : cookie.getPath())
+                .isSecure(cookie.getSecure())
+                .isHttpOnly(cookie.isHttpOnly());
+        if (cookie.getMaxAge() > 0) {
+            builder.expiresOn(new Date(System.currentTimeMillis() + cookie.getMaxAge() * 1000));
+        }
+        // domínio fica o da página atual (a API e a app partilham a origem)
+        return builder.build();
+    }
+
+    static String appBaseUrl() {
+        String base = ConfigReader.getProperty("BASE_URL", "https://monetis-delta.vercel.app/");
+        return base.replaceAll("/+$", "");
+    }
+}
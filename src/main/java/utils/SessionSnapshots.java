@@ -0,0 +1,200 @@
+package utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshots da sessão autenticada (cookies + localStorage + sessionStorage), um por
+ * utilizador e por worker, guardados em disco com validade.
+ *
+ * Depois do primeiro login de um utilizador num worker, os cenários seguintes restauram
+ * o snapshot em vez de voltar a autenticar. O snapshot é apagado quando a app manda
+ * para /login (sessão expirada/terminada): ver {@link #invalidateCurrent()}.
+ *
+ * Config: SESSION_SNAPSHOTS (omissão true), SESSION_SNAPSHOT_DIR (omissão target/session-snapshots),
+ * SESSION_SNAPSHOT_TTL_MIN (omissão 30; nunca vai além da expiração dos cookies).
+ */
+public class SessionSnapshots {
+
+    private static final String DEFAULT_DIR = "target/session-snapshots";
+    private static final int DEFAULT_TTL_MIN = 30;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // snapshots já lidos/gravados nesta JVM (evita ir ao disco em cada cenário)
+    private static final Map<String, Snapshot> CACHE = new ConcurrentHashMap<>();
+
+    // snapshot em uso pelo cenário da thread atual (para invalidar em caso de logout)
+    private static final ThreadLocal<String> ACTIVE = new ThreadLocal<>();
+
+    public record StoredCookie(String name, String value, String domain, String path,
+                               Long expiry, boolean secure, boolean httpOnly, String sameSite) {
+    }
+
+    public record Snapshot(String user, String worker, long createdAt, long expiresAt,
+                           List<StoredCookie> cookies,
+                           Map<String, String> localStorage,
+                           Map<String, String> sessionStorage) {
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    private SessionSnapshots() {
+    }
+
+    public static boolean isEnabled() {
+        return ConfigReader.getBoolean("SESSION_SNAPSHOTS", true);
+    }
+
+    /** Guarda o estado autenticado atual do browser para este utilizador + worker. */
+    public static void capture(WebDriver driver, String user) {
+        if (!isEnabled() || user == null) return;
+
+        String key = key(user);
+        try {
+            List<StoredCookie> cookies = new ArrayList<>();
+            long expiresAt = System.currentTimeMillis()
+                    + ConfigReader.getInt("SESSION_SNAPSHOT_TTL_MIN", DEFAULT_TTL_MIN) * 60_000L;
+            for (Cookie c : driver.manage().getCookies()) {
+                Long expiry = c.getExpiry() == null ? null : c.getExpiry().getTime();
+                if (expiry != null) expiresAt = Math.min(expiresAt, expiry);
+                cookies.add(new StoredCookie(c.getName(), c.getValue(), c.getDomain(), c.getPath(),
+                        expiry, c.isSecure(), c.isHttpOnly(), c.getSameSite()));
+            }
+
+            Snapshot snapshot = new Snapshot(user, Hooks.workerId(), System.currentTimeMillis(), expiresAt,
+                    cookies, readStorage(driver, "localStorage"), readStorage(driver, "sessionStorage"));
+
+            Path file = fileOf(key);
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            MAPPER.writeValue(tmp.toFile(), snapshot);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+
+            CACHE.put(key, snapshot);
+            ACTIVE.set(key);
+        } catch (IOException | WebDriverException e) {
+            System.err.println("[SessionSnapshots] Could not capture session for " + user + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Restaura o snapshot do utilizador (se houver e estiver válido) e abre o path.
+     * Devolve false se não havia nada para restaurar; quem chama confirma que a sessão
+     * foi aceite (sem redirect para /login).
+     */
+    public static boolean restore(WebDriver driver, String user, String path) {
+        if (!isEnabled() || user == null) return false;
+
+        String key = key(user);
+        Snapshot snapshot = CACHE.computeIfAbsent(key, SessionSnapshots::read);
+        if (snapshot == null) return false;
+        if (snapshot.isExpired()) {
+            invalidate(key);
+            return false;
+        }
+
+        String base = SessionInjector.appBaseUrl();
+        try {
+            // cookies e storage só podem ser escritos estando já na origem da app
+            if (driver.getCurrentUrl() == null || !driver.getCurrentUrl().startsWith(base)) {
+                driver.get(base);
+            }
+            for (StoredCookie c : snapshot.cookies()) {
+                Cookie.Builder builder = new Cookie.Builder(c.name(), c.value())
+                        .path(c.path() == null ? "/" : c.path())
+                        .isSecure(c.secure())
+                        .isHttpOnly(c.httpOnly());
+                if (c.domain() != null) builder.domain(c.domain());
+                if (c.expiry() != null) builder.expiresOn(new Date(c.expiry()));
+                if (c.sameSite() != null) builder.sameSite(c.sameSite());
+                driver.manage().addCookie(builder.build());
+            }
+            writeStorage(driver, "localStorage", snapshot.localStorage());
+            writeStorage(driver, "sessionStorage", snapshot.sessionStorage());
+
+            driver.navigate().to(base + "/" + path.replaceAll("^/+", ""));
+        } catch (WebDriverException e) {
+            System.err.println("[SessionSnapshots] Could not restore session for " + user + ": " + e.getMessage());
+            invalidate(key);
+            return false;
+        }
+
+        ACTIVE.set(key);
+        return true;
+    }
+
+    /** A app mandou para /login: o snapshot em uso na thread atual deixou de servir. */
+    public static void invalidateCurrent() {
+        String key = ACTIVE.get();
+        if (key != null) {
+            invalidate(key);
+        }
+    }
+
+    /** Fim do cenário: deixa de haver snapshot ativo na thread (Hooks). */
+    static void clearCurrent() {
+        ACTIVE.remove();
+    }
+
+    private static void invalidate(String key) {
+        CACHE.remove(key);
+        ACTIVE.remove();
+        try {
+            Files.deleteIfExists(fileOf(key));
+        } catch (IOException e) {
+            System.err.println("[SessionSnapshots] Could not delete " + fileOf(key) + ": " + e.getMessage());
+        }
+    }
+
+    private static Snapshot read(String key) {
+        Path file = fileOf(key);
+        if (!Files.exists(file)) return null;
+        try {
+            return MAPPER.readValue(file.toFile(), Snapshot.class);
+        } catch (IOException e) {
+            // ficheiro truncado/antigo: trata como inexistente
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> readStorage(WebDriver driver, String storage) throws IOException {
+        Object json = ((JavascriptExecutor) driver).executeScript(
+                "return JSON.stringify(Object.assign({}, window." + storage + "));");
+        return json == null ? Map.of() : MAPPER.readValue(json.toString(), new TypeReference<Map<String, String>>() {
+        });
+    }
+
+    private static void writeStorage(WebDriver driver, String storage, Map<String, String> values) {
+        if (values == null || values.isEmpty()) return;
+        ((JavascriptExecutor) driver).executeScript(
+                "var s = window." + storage + ", v = arguments[0];"
+                        + "Object.keys(v).forEach(function (k) { s.setItem(k, v[k]); });",
+                values);
+    }
+
+    private static String key(String user) {
+        return user.toLowerCase().replaceAll("[^a-z0-9._-]", "_") + "@w" + Hooks.workerId();
+    }
+
+    private static Path fileOf(String key) {
+        return Path.of(ConfigReader.getProperty("SESSION_SNAPSHOT_DIR", DEFAULT_DIR), key + ".json");
+    }
+}
@@ -0,0 +1,96 @@
+package api;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+
+// Não precisa da app: testa só a ResponseCache (TTL, revalidação por ETag, invalidação nas escritas)
+public class ResponseCacheTest {
+
+    private static final String ACCOUNTS = "http://localhost/api/accounts";
+    private static final String PROFILE = "http://localhost/api/profile";
+    private static final String CATEGORIES = "http://localhost/api/categories";
+    private static final long TTL_MS = 100;
+
+    private ResponseCache cache;
+
+    @BeforeClass
+    public void shortTtl() {
+        System.setProperty("API_CACHE", "true");
+        System.setProperty("API_CACHE_TTL_MS", String.valueOf(TTL_MS));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restore() {
+        System.clearProperty("API_CACHE");
+        System.clearProperty("API_CACHE_TTL_MS");
+    }
+
+    @BeforeMethod
+    public void newCache() {
+        cache = new ResponseCache();
+    }
+
+    @Test
+    public void entryExpiresAfterTtl() throws InterruptedException {
+        String key = ResponseCache.key(ACCOUNTS, "alice");
+        cache.put(key, null, body("[]"));
+        Assert.assertTrue(cache.get(key).isFresh(cache.ttl()), "New entry should be fresh");
+
+        Thread.sleep(TTL_MS + 50);
+        Assert.assertFalse(cache.get(key).isFresh(cache.ttl()), "Entry should be stale after the TTL");
+    }
+
+    @Test
+    public void staleEntryIsRevalidatedWithItsEtag() throws InterruptedException {
+        String key = ResponseCache.key(ACCOUNTS, "alice");
+        cache.put(key, "\"v1\"", body("[{\"id\":1}]"));
+        Thread.sleep(TTL_MS + 50);
+
+        ResponseCache.Entry stale = cache.get(key);
+        Assert.assertFalse(stale.isFresh(cache.ttl()));
+        Assert.assertEquals(stale.etag(), "\"v1\"");
+
+        // 304 Not Modified: o mesmo corpo volta a estar fresco e conta como servido pela cache
+        long served = cache.served();
+        cache.revalidated(key, stale);
+        ResponseCache.Entry renewed = cache.get(key);
+        Assert.assertTrue(renewed.isFresh(cache.ttl()), "Revalidated entry should be fresh again");
+        Assert.assertEquals(renewed.body(), stale.body());
+        Assert.assertEquals(cache.served(), served + 1);
+    }
+
+    @Test
+    public void writeInvalidatesSameUserAndSameResource() {
+        cache.put(ResponseCache.key(ACCOUNTS, "alice"), null, body("a"));
+        cache.put(ResponseCache.key(PROFILE, "alice"), null, body("b"));
+        cache.put(ResponseCache.key(ACCOUNTS, "bob"), null, body("c"));
+        cache.put(ResponseCache.key(CATEGORIES, "bob"), null, body("d"));
+
+        cache.invalidate(ACCOUNTS + "/1/deposit", "alice");
+
+        Assert.assertNull(cache.get(ResponseCache.key(ACCOUNTS, "alice")));
+        Assert.assertNull(cache.get(ResponseCache.key(PROFILE, "alice")), "Writer's own entries should go");
+        Assert.assertNull(cache.get(ResponseCache.key(ACCOUNTS, "bob")), "Same resource of other users should go");
+        Assert.assertNotNull(cache.get(ResponseCache.key(CATEGORIES, "bob")), "Unrelated entries should stay");
+    }
+
+    @Test
+    public void writeWithoutSessionInvalidatesOnlyTheResource() {
+        cache.put(ResponseCache.key(ACCOUNTS, "alice"), null, body("a"));
+        cache.put(ResponseCache.key(PROFILE, "alice"), null, body("b"));
+
+        cache.invalidate(ACCOUNTS + "/1");
+
+        Assert.assertNull(cache.get(ResponseCache.key(ACCOUNTS, "alice")));
+        Assert.assertNotNull(cache.get(ResponseCache.key(PROFILE, "alice")));
+    }
+
+    private static byte[] body(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
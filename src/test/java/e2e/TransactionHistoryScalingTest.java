@@ -0,0 +1,149 @@
+package e2e;
+
+import api.AccountsApi;
+import api.CreatedUsers;
+import api.RegisterUser;
+import api.TransactionSeeder;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import pages.LoginPage;
+import pages.TransactionsPage;
+import utils.ConfigReader;
+import utils.Hooks;
+import utils.IdentityGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Curva de escala do TransactionsPage com histórico grande (não corre no mvn test normal).
+ *
+ * Cria uma conta nova, faz um pagamento marcador (o mais antigo, pior caso para a pesquisa)
+ * e vai enchendo o histórico pela API até cada patamar de SCALING_STEPS. Em cada patamar mede
+ * o render da página (menu -> linhas visíveis) e o waitUntilTransactionAmountAppears do marcador,
+ * e acrescenta uma linha a SCALING_REPORT (omissão scaling/transactions-history.csv) para
+ * comparar de release para release (APP_RELEASE).
+ *
+ * Antes de cada patamar a Checking é financiada só com o que os pagamentos semeados gastam
+ * (TransactionSeeder.paymentCost). Se não der (conta nova sem saldo e sem API_DEPOSIT_PATH),
+ * o patamar é semeado só com transferências, que não gastam saldo, em vez de abortar a curva.
+ *
+ * Uso: mvn test -Pscaling [-Dscaling.steps=0,100,1000,10000] [-Dapp.release=2026.10]
+ */
+public class TransactionHistoryScalingTest {
+
+    private static final String DEFAULT_STEPS = "0,100,1000,5000,10000";
+    private static final String DEFAULT_REPORT = "scaling/transactions-history.csv";
+    private static final String CSV_HEADER =
+            "run_at,app_release,history_size,rendered_rows,render_ms,search_ms,found,seed_failures";
+
+    // valor único: só o marcador tem 7,77€
+    private static final BigDecimal MARKER_AMOUNT = new BigDecimal("7.77");
+    private static final String MARKER_TEXT = "-7,77€";
+
+    // folga para as transferências em paralelo (Checking -> Savings antes do regresso)
+    private static final BigDecimal FUNDING_MARGIN = BigDecimal.valueOf(20);
+
+    private IdentityGenerator.Identity identity;
+    private TransactionSeeder seeder;
+
+    @BeforeClass
+    public void createSeededAccount() throws IOException, InterruptedException {
+        identity = IdentityGenerator.next();
+        Map<String, Object> response = RegisterUser.register(identity.email(), identity.phone(), identity.password());
+        Assert.assertEquals(response.get("success"), Boolean.TRUE, "Registration failed: " + response);
+        if (!ConfigReader.getBoolean("SCALING_KEEP_USER", false)) {
+            CreatedUsers.record(identity.email(), identity.password());
+        }
+
+        seeder = TransactionSeeder.forUser(identity.email(), identity.password());
+        seeder.payment(MARKER_AMOUNT, "house");
+    }
+
+    @Test
+    public void transactionSearchScalesWithHistory() throws IOException, InterruptedException {
+        List<Integer> steps = Arrays.stream(ConfigReader.getProperty("SCALING_STEPS", DEFAULT_STEPS).split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(Integer::parseInt)
+                .sorted()
+                .toList();
+
+        Hooks.ensureInitialized();
+        WebDriver driver = Hooks.getDriver();
+        LoginPage loginPage = new LoginPage(driver);
+        TransactionsPage transactionsPage = new TransactionsPage(driver);
+        String release = ConfigReader.getProperty("APP_RELEASE", "unknown");
+        int seedFailures = 0;
+
+        for (int target : steps) {
+            int missing = target - seeder.seeded();
+            if (missing > 0) {
+                boolean withPayments = fundPayments(missing);
+                long seedStart = System.nanoTime();
+                seedFailures += seeder.seed(missing, withPayments);
+                System.out.printf("[Scaling] seeded %d transactions in %d ms%n",
+                        missing, (System.nanoTime() - seedStart) / 1_000_000);
+            }
+
+            loginPage.loginFast(identity.email(), identity.password());
+
+            long renderStart = System.nanoTime();
+            transactionsPage.openViaMenu();
+            long renderMs = (System.nanoTime() - renderStart) / 1_000_000;
+            int rows = transactionsPage.renderedRowCount();
+
+            long searchStart = System.nanoTime();
+            boolean found = transactionsPage.waitUntilTransactionAmountAppears(MARKER_TEXT, Duration.ofSeconds(60));
+            long searchMs = (System.nanoTime() - searchStart) / 1_000_000;
+
+            String line = String.join(",", Instant.now().toString(), release, Integer.toString(seeder.seeded()),
+                    Integer.toString(rows), Long.toString(renderMs), Long.toString(searchMs),
+                    Boolean.toString(found), Integer.toString(seedFailures));
+            append(line);
+            System.out.printf("[Scaling] history=%6d rows=%6d render=%6d ms search=%6d ms found=%s%n",
+                    seeder.seeded(), rows, renderMs, searchMs, found);
+        }
+    }
+
+    /** Os pagamentos saem da Checking: garante o saldo que vão gastar; false se não houver como. */
+    private boolean fundPayments(int count) throws InterruptedException {
+        BigDecimal needed = TransactionSeeder.paymentCost(count);
+        if (needed.signum() == 0) return true;
+        try {
+            AccountsApi.ensureBalance(identity.email(), identity.password(), "Checking", needed.add(FUNDING_MARGIN));
+            return true;
+        } catch (IOException e) {
+            System.err.printf("[Scaling] cannot fund %s for %d payments, seeding %d transfers only: %s%n",
+                    needed, TransactionSeeder.payments(count), count, e.getMessage());
+            return false;
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void releaseBrowser() {
+        Hooks.release(false);
+    }
+
+    private static void append(String line) throws IOException {
+        Path report = Path.of(ConfigReader.getProperty("SCALING_REPORT", DEFAULT_REPORT));
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        if (!Files.exists(report)) {
+            Files.writeString(report, CSV_HEADER + System.lineSeparator());
+        }
+        Files.writeString(report, line + System.lineSeparator(), StandardOpenOption.APPEND);
+    }
+}
@@ -1,14 +1,23 @@
 
 package e2e;
 
+import api.AccountsApi;
+import api.ApiClient;
+import api.CreatedUsers;
 import api.RegisterUser;
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import pages.LandingPage;
+import utils.ConfigReader;
 import utils.Hooks;
+import utils.IdentityGenerator;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 public class UserRegistrationAndLoginTest extends Hooks {
@@ -21,6 +30,48 @@ public class UserRegistrationAndLoginTest extends Hooks {
         Map<String, Object> response = RegisterUser.register();
         System.out.println("API Response: " + response);
         Assert.assertTrue(response.containsKey("success"), "User registration failed!");
+
+        // contas extra (E2E_PROVISION_USERS, omissão 0) registadas em paralelo
+        int count = ConfigReader.getInt("E2E_PROVISION_USERS", 0);
+        if (count <= 0) return;
+
+        List<IdentityGenerator.Identity> identities = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            identities.add(IdentityGenerator.next());
+        }
+        long start = System.nanoTime();
+        List<ApiClient.BatchResult<IdentityGenerator.Identity, Map<String, Object>>> results = ApiClient.batch(
+                identities, ConfigReader.getInt("E2E_PROVISION_CONCURRENCY", 16),
+                id -> RegisterUser.registerAsync(id.email(), id.phone(), id.password()));
+
+        List<String> failures = new ArrayList<>();
+        for (ApiClient.BatchResult<IdentityGenerator.Identity, Map<String, Object>> result : results) {
+            String email = result.item().email();
+            if (!result.isOk()) {
+                failures.add(email + ": " + result.error());
+            } else if (!Boolean.TRUE.equals(result.value().get("success"))) {
+                failures.add(email + ": " + result.value());
+            } else {
+                CreatedUsers.record(email, result.item().password());
+            }
+        }
+        System.out.printf("Provisioned %d/%d users in %d ms%n",
+                count - failures.size(), count, (System.nanoTime() - start) / 1_000_000);
+        Assert.assertTrue(failures.isEmpty(), "User provisioning failed: " + failures);
+    }
+
+    // cada ensureBalance faz login de novo: a lista de contas tem de vir da cache na segunda vez
+    // (verificação contra a app; a lógica da cache em si está coberta em api.ResponseCacheTest)
+    @Test
+    public void secondEnsureBalanceUsesCachedAccounts() throws IOException, InterruptedException {
+        if (!ConfigReader.getBoolean("API_CACHE", true)) {
+            throw new SkipException("API_CACHE=false");
+        }
+        AccountsApi.ensureBalance(testEmail, testPassword, "Checking", BigDecimal.ZERO);
+        long served = ApiClient.servedFromCache();
+        AccountsApi.ensureBalance(testEmail, testPassword, "Checking", BigDecimal.ZERO);
+        Assert.assertTrue(ApiClient.servedFromCache() > served,
+                "Second ensureBalance for the same user did not hit the response cache");
     }
 
     @Test
@@ -0,0 +1,116 @@
+package runners;
+
+import io.cucumber.gherkin.GherkinParser;
+import io.cucumber.messages.types.Envelope;
+import io.cucumber.messages.types.Examples;
+import io.cucumber.messages.types.FeatureChild;
+import io.cucumber.messages.types.GherkinDocument;
+import io.cucumber.messages.types.Pickle;
+import io.cucumber.messages.types.PickleTag;
+import io.cucumber.messages.types.RuleChild;
+import io.cucumber.messages.types.Scenario;
+import io.cucumber.messages.types.TableRow;
+import io.cucumber.tagexpressions.Expression;
+import io.cucumber.tagexpressions.TagExpressionParser;
+import utils.ScenarioDurations;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Lista os cenários (um por linha de Examples nos Scenario Outline) das features
+ * no classpath, já filtrados pela tag expression, como chaves "features/X.feature:linha".
+ */
+public class FeatureScenarios {
+
+    private FeatureScenarios() {
+    }
+
+    public static List<String> discover(String tagExpression) {
+        Expression tags = tagExpression == null || tagExpression.isBlank()
+                ? null
+                : TagExpressionParser.parse(tagExpression);
+
+        List<String> keys = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(featuresRoot())) {
+            for (Path feature : files.filter(p -> p.toString().endsWith(".feature")).sorted().toList()) {
+                keys.addAll(scenariosOf(feature, tags));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return keys;
+    }
+
+    private static List<String> scenariosOf(Path feature, Expression tags) throws IOException {
+        GherkinParser parser = GherkinParser.builder()
+                .includeSource(false)
+                .includeGherkinDocument(true)
+                .includePickles(true)
+                .build();
+
+        Map<String, Long> lines = new HashMap<>();
+        List<Pickle> pickles = new ArrayList<>();
+        try (Stream<Envelope> envelopes = parser.parse(feature)) {
+            envelopes.forEach(envelope -> {
+                envelope.getGherkinDocument().ifPresent(doc -> indexLines(doc, lines));
+                envelope.getPickle().ifPresent(pickles::add);
+            });
+        }
+
+        List<String> keys = new ArrayList<>();
+        for (Pickle pickle : pickles) {
+            List<String> tagNames = pickle.getTags().stream().map(PickleTag::getName).toList();
+            if (tags != null && !tags.evaluate(tagNames)) continue;
+
+            // Scenario: [scenarioId]; Outline example: [scenarioId, rowId] -> linha da row
+            List<String> ids = pickle.getAstNodeIds();
+            Long line = lines.get(ids.get(ids.size() - 1));
+            keys.add(ScenarioDurations.key(feature.toUri(), line == null ? 0 : line));
+        }
+        return keys;
+    }
+
+    private static void indexLines(GherkinDocument doc, Map<String, Long> lines) {
+        doc.getFeature().ifPresent(feature -> {
+            for (FeatureChild child : feature.getChildren()) {
+                child.getScenario().ifPresent(s -> indexScenario(s, lines));
+                child.getRule().ifPresent(rule -> {
+                    for (RuleChild ruleChild : rule.getChildren()) {
+                        ruleChild.getScenario().ifPresent(s -> indexScenario(s, lines));
+                    }
+                });
+            }
+        });
+    }
+
+    private static void indexScenario(Scenario scenario, Map<String, Long> lines) {
+        lines.put(scenario.getId(), scenario.getLocation().getLine());
+        for (Examples examples : scenario.getExamples()) {
+            for (TableRow row : examples.getTableBody()) {
+                lines.put(row.getId(), row.getLocation().getLine());
+            }
+        }
+    }
+
+    private static Path featuresRoot() {
+        URL url = FeatureScenarios.class.getClassLoader().getResource("features");
+        if (url == null) {
+            return Path.of("src/test/resources/features");
+        }
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Bad features location " + url, e);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package runners;
+
+import api.TestUserPool;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import utils.ScenarioDurations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scheduler dinâmico (work-stealing): uma fila de cenários e N JVMs worker locais que
+ * pedem o próximo cenário por socket assim que ficam livres. O tempo total passa a
+ * acompanhar o cenário mais lento, e não o pior shard estático.
+ *
+ * Uso: mvn test -Pwork-stealing -Dworkers=4 [-Dcucumber.filter.tags=...]
+ * Com TEST_USER_POOL=false corre um só worker (ver {@link ScenarioParallelism}).
+ *
+ * Protocolo (uma linha por mensagem, campos separados por espaço):
+ *   worker → "NEXT"                         coordinator → "RUN <chave>" | "WAIT" | "DONE"
+ *   worker → "RESULT <chave> <status> <ms>" seguido de "REPORT <json cucumber em base64>"
+ * A chave do cenário vai em base64 (url-safe), porque o path da feature pode ter espaços.
+ *
+ * Os resultados aparecem na consola à medida que chegam e os relatórios json de cada
+ * cenário são juntos em target/cucumber-scheduled.json.
+ */
+public class ScenarioCoordinator {
+
+    private static final Path OUT_DIR = Path.of("target", "scheduler");
+    private static final Path COMBINED_REPORT = Path.of("target", "cucumber-scheduled.json");
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final BlockingQueue<String> pending = new LinkedBlockingQueue<>();
+    private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    private final Map<String, String> results = new ConcurrentHashMap<>();
+    private final List<String> reports = new ArrayList<>();
+    private final CountDownLatch finished;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private ScenarioCoordinator(List<String> scenarios) {
+        pending.addAll(scenarios);
+        scenarios.forEach(s -> attempts.put(s, new AtomicInteger()));
+        finished = new CountDownLatch(scenarios.size());
+    }
+
+    public static void main(String[] args) throws Exception {
+        int workers = Integer.getInteger("scheduler.workers", 4);
+        String tags = System.getProperty("cucumber.filter.tags");
+        if (workers > 1 && !TestUserPool.isEnabled()) {
+            System.out.printf("[Coordinator] TEST_USER_POOL=false: running 1 worker instead of %d "
+                    + "(all workers would log in as the .env user; set TEST_USER_POOL=true for parallel runs)%n", workers);
+            workers = 1;
+        }
+
+        // maior primeiro: os cenários longos arrancam cedo e os curtos preenchem os buracos
+        Map<String, Long> history = ScenarioDurations.load();
+        List<String> scenarios = new ArrayList<>(FeatureScenarios.discover(tags));
+        scenarios.sort(Comparator.<String>comparingLong(s -> history.getOrDefault(s, ShardPlanner.DEFAULT_ESTIMATE_MS)).reversed());
+
+        System.out.printf("[Coordinator] %d scenarios, %d workers, tags: %s%n", scenarios.size(), workers, tags);
+        if (scenarios.isEmpty()) return;
+
+        ScenarioCoordinator coordinator = new ScenarioCoordinator(scenarios);
+        int failures = coordinator.run(Math.min(workers, scenarios.size()));
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private int run(int workers) throws IOException, InterruptedException {
+        Files.createDirectories(OUT_DIR);
+        long start = System.nanoTime();
+
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            List<Process> processes = new ArrayList<>();
+            for (int i = 1; i <= workers; i++) {
+                processes.add(startWorker(i, server.getLocalPort()));
+            }
+
+            Thread acceptor = new Thread(() -> acceptWorkers(server, workers), "coordinator-accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            while (!finished.await(1, TimeUnit.SECONDS)) {
+                if (processes.stream().noneMatch(Process::isAlive)) {
+                    // todos os workers morreram: o que falta fica como CRASHED
+                    attempts.keySet().stream()
+                            .filter(s -> !results.containsKey(s))
+                            .toList()
+                            .forEach(s -> complete(s, "CRASHED", 0, ""));
+                    break;
+                }
+            }
+            for (Process process : processes) {
+                process.waitFor();
+            }
+        }
+
+        writeCombinedReport();
+
+        long failed = results.values().stream().filter(status -> !"PASSED".equals(status)).count();
+        System.out.printf("[Coordinator] %d scenarios in %d s: %d passed, %d failed -> %s%n",
+                results.size(), (System.nanoTime() - start) / 1_000_000_000L,
+                results.size() - failed, failed, COMBINED_REPORT);
+        return (int) failed;
+    }
+
+    private Process startWorker(int id, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        // cada worker corre um cenário de cada vez: um browser chega
+        command.add("-DBROWSER_POOL_SIZE=1");
+        System.getProperties().forEach((k, v) -> {
+            String key = k.toString();
+            if (key.startsWith("cucumber.") || key.matches("[A-Z0-9_]+")) {
+                command.add("-D" + key + "=" + v);
+            }
+        });
+        command.add(ScenarioWorker.class.getName());
+        command.add(Integer.toString(port));
+        command.add(Integer.toString(id));
+
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(OUT_DIR.resolve("worker-" + id + ".log").toFile())
+                .start();
+    }
+
+    private void acceptWorkers(ServerSocket server, int workers) {
+        for (int i = 0; i < workers; i++) {
+            try {
+                Socket socket = server.accept();
+                Thread handler = new Thread(() -> serve(socket), "coordinator-worker-" + i);
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.err.println("[Coordinator] accept failed: " + e.getMessage());
+                }
+                return;
+            }
+        }
+    }
+
+    /** Atende um worker até a fila esvaziar; se o worker morrer, o cenário em curso volta à fila. */
+    private void serve(Socket socket) {
+        String inFlight = null;
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.equals("NEXT")) {
+                    inFlight = pending.poll();
+                    if (inFlight == null) {
+                        // ainda há cenários a correr noutros workers: podem voltar à fila se um worker morrer
+                        out.println(finished.getCount() == 0 ? "DONE" : "WAIT");
+                        if (finished.getCount() == 0) return;
+                        continue;
+                    }
+                    attempts.get(inFlight).incrementAndGet();
+                    out.println("RUN " + encodeKey(inFlight));
+
+                } else if (line.startsWith("RESULT ")) {
+                    String[] parts = line.split(" ");
+                    String report = in.readLine();
+                    complete(decodeKey(parts[1]), parts[2], Long.parseLong(parts[3]),
+                            report != null && report.startsWith("REPORT ") ? report.substring("REPORT ".length()) : "");
+                    inFlight = null;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("[Coordinator] worker connection lost: " + e.getMessage());
+        } finally {
+            if (inFlight != null) {
+                retryOrFail(inFlight);
+            }
+        }
+    }
+
+    static String encodeKey(String scenario) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(scenario.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeKey(String encoded) {
+        return new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+    }
+
+    private void complete(String scenario, String status, long millis, String reportBase64) {
+        if (results.putIfAbsent(scenario, status) != null) return;
+        if (!reportBase64.isEmpty()) {
+            synchronized (reports) {
+                reports.add(new String(Base64.getDecoder().decode(reportBase64), StandardCharsets.UTF_8));
+            }
+        }
+        System.out.printf("[Coordinator] %-7s %6d ms  %s  (%d left)%n",
+                status, millis, scenario, finished.getCount() - 1);
+        finished.countDown();
+    }
+
+    private void retryOrFail(String scenario) {
+        if (attempts.get(scenario).get() < MAX_ATTEMPTS) {
+            System.err.println("[Coordinator] worker died running " + scenario + ", re-queuing");
+            pending.add(scenario);
+        } else {
+            complete(scenario, "CRASHED", 0, "");
+        }
+    }
+
+    /** Junta os relatórios json (um por cenário) num só, agrupando por feature. */
+    private void writeCombinedReport() throws IOException {
+        Map<String, ObjectNode> features = new LinkedHashMap<>();
+        synchronized (reports) {
+            for (String json : reports) {
+                for (var node : mapper.readTree(json)) {
+                    ObjectNode feature = (ObjectNode) node;
+                    String uri = feature.path("uri").asText();
+                    ObjectNode merged = features.get(uri);
+                    if (merged == null) {
+                        features.put(uri, feature);
+                    } else {
+                        elementsOf(merged).addAll(elementsOf(feature));
+                    }
+                }
+            }
+        }
+
+        ArrayNode combined = mapper.createArrayNode();
+        features.values().forEach(feature -> {
+            List<JsonNode> elements = new ArrayList<>();
+            elementsOf(feature).forEach(elements::add);
+            elements.sort(Comparator.comparingInt(e -> e.path("line").asInt()));
+            feature.putArray("elements").addAll(elements);
+            combined.add(feature);
+        });
+        mapper.writerWithDefaultPrettyPrinter().writeValue(COMBINED_REPORT.toFile(), combined);
+    }
+
+    private static ArrayNode elementsOf(ObjectNode feature) {
+        JsonNode elements = feature.get("elements");
+        return elements instanceof ArrayNode array ? array : feature.putArray("elements");
+    }
+}
@@ -0,0 +1,69 @@
+package runners;
+
+import api.TestUserPool;
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfiguration;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfigurationStrategy;
+
+/**
+ * Paralelismo dos cenários (cucumber.execution.parallel.config.strategy=custom).
+ *
+ * Igual à estratégia fixed (fixed.parallelism / fixed.max-pool-size, que o pom preenche com
+ * -Dworkers), mas com TEST_USER_POOL=false fica em 1 worker: sem o pool todos os cenários
+ * fazem login com o mesmo USER do .env, e as asserções de saldo do Transfer e do Payments
+ * em paralelo apanhavam as transações umas das outras.
+ */
+public class ScenarioParallelism implements ParallelExecutionConfigurationStrategy {
+
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final int KEEP_ALIVE_SECONDS = 30;
+
+    @Override
+    public ParallelExecutionConfiguration createConfiguration(ConfigurationParameters parameters) {
+        int requested = parameters.get("fixed.parallelism", Integer::parseInt).orElse(DEFAULT_PARALLELISM);
+        int parallelism = Math.max(1, requested);
+        if (parallelism > 1 && !TestUserPool.isEnabled()) {
+            System.out.printf("[ScenarioParallelism] TEST_USER_POOL=false: running 1 worker instead of %d "
+                    + "(all scenarios share the .env user; set TEST_USER_POOL=true for parallel runs)%n", parallelism);
+            parallelism = 1;
+        }
+        int maxPoolSize = Math.max(parallelism,
+                parameters.get("fixed.max-pool-size", Integer::parseInt).orElse(parallelism));
+        return new Fixed(parallelism, maxPoolSize);
+    }
+
+    private static final class Fixed implements ParallelExecutionConfiguration {
+        private final int parallelism;
+        private final int maxPoolSize;
+
+        Fixed(int parallelism, int maxPoolSize) {
+            this.parallelism = parallelism;
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        @Override
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        @Override
+        public int getMinimumRunnable() {
+            return parallelism;
+        }
+
+        @Override
+        public int getMaxPoolSize() {
+            return maxPoolSize;
+        }
+
+        @Override
+        public int getCorePoolSize() {
+            return parallelism;
+        }
+
+        @Override
+        public int getKeepAliveSeconds() {
+            return KEEP_ALIVE_SECONDS;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package runners;
+
+import io.cucumber.core.cli.Main;
+import utils.Hooks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+/**
+ * JVM worker do {@link ScenarioCoordinator}: pede um cenário, corre-o com o Cucumber CLI
+ * e devolve o estado + relatório json. O BrowserPool é estático, por isso o browser
+ * (e o chromedriver resolvido) é reaproveitado de um cenário para o seguinte.
+ */
+public class ScenarioWorker {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = Integer.parseInt(args[0]);
+        String id = args[1];
+        Path reportDir = Path.of("target", "scheduler", "worker-" + id);
+        Files.createDirectories(reportDir);
+        System.setProperty("worker.id", id);
+
+        // o browser arranca enquanto o worker se liga ao coordinator
+        Thread warmUp = new Thread(Hooks::warmUp, "worker-warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+
+            int run = 0;
+            while (true) {
+                out.println("NEXT");
+                String reply = in.readLine();
+                if (reply == null || reply.equals("DONE")) break;
+                if (reply.equals("WAIT")) {
+                    Thread.sleep(500);
+                    continue;
+                }
+
+                String scenario = ScenarioCoordinator.decodeKey(reply.substring("RUN ".length()));
+                Path report = reportDir.resolve("scenario-" + (++run) + ".json");
+
+                long start = System.nanoTime();
+                byte exitStatus = Main.run(new String[]{
+                        "--glue", "stepdefinitions",
+                        "--glue", "utils",
+                        "--plugin", "json:" + report,
+                        "--plugin", "utils.ScenarioDurations",
+                        "--monochrome",
+                        "classpath:" + scenario
+                }, Thread.currentThread().getContextClassLoader());
+                long millis = (System.nanoTime() - start) / 1_000_000;
+
+                String json = Files.exists(report) ? Files.readString(report) : "[]";
+                out.println("RESULT " + ScenarioCoordinator.encodeKey(scenario) + " " + (exitStatus == 0 ? "PASSED" : "FAILED") + " " + millis);
+                out.println("REPORT " + Base64.getEncoder().encodeToString(json.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        System.exit(0);
+    }
+}
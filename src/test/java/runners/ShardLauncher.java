@@ -0,0 +1,83 @@
+package runners;
+
+import api.TestUserPool;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modo sharded: mvn test -Psharded -Dshards=N (qualquer N >= 1).
+ *
+ * Lança N JVMs {@link ShardRunner} (shard.index = 1..N, shard.total = N); cada uma calcula o
+ * mesmo plano por duração ({@link ShardPlanner}, a partir de scenario-durations.properties) e
+ * corre só os seus cenários. O surefire só reparte classes de teste pelos forks, por isso em vez
+ * de uma classe por shard há um único runner lançado N vezes.
+ *
+ * Com TEST_USER_POOL=false corre um só shard (ver {@link ScenarioParallelism}).
+ *
+ * Saída de cada shard em target/shards/shard-N.log; relatórios em target/shards/shard-N.{html,json}.
+ */
+public class ShardLauncher {
+
+    private static final Path OUT_DIR = Path.of("target", "shards");
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int shards = Integer.getInteger("shards", 4);
+        if (shards < 1) {
+            System.err.println("[ShardLauncher] -Dshards must be at least 1, got " + shards);
+            System.exit(2);
+        }
+        if (shards > 1 && !TestUserPool.isEnabled()) {
+            System.out.printf("[ShardLauncher] TEST_USER_POOL=false: running 1 shard instead of %d "
+                    + "(all shards would log in as the .env user; set TEST_USER_POOL=true for sharded runs)%n", shards);
+            shards = 1;
+        }
+        Files.createDirectories(OUT_DIR);
+        System.out.printf("[ShardLauncher] %d shards, tags: %s%n", shards, System.getProperty("cucumber.filter.tags"));
+
+        long start = System.nanoTime();
+        List<Process> processes = new ArrayList<>();
+        for (int i = 1; i <= shards; i++) {
+            processes.add(startShard(i, shards));
+        }
+
+        int failed = 0;
+        for (int i = 0; i < processes.size(); i++) {
+            int exit = processes.get(i).waitFor();
+            if (exit != 0) failed++;
+            System.out.printf("[ShardLauncher] shard %d/%d %s (exit %d) -> %s%n", i + 1, shards,
+                    exit == 0 ? "PASSED" : "FAILED", exit, log(i + 1));
+        }
+        System.out.printf("[ShardLauncher] %d shards in %d s, %d failed%n",
+                shards, (System.nanoTime() - start) / 1_000_000_000L, failed);
+        System.exit(failed == 0 ? 0 : 1);
+    }
+
+    private static Process startShard(int index, int total) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        System.getProperties().forEach((k, v) -> {
+            String key = k.toString();
+            if (key.startsWith("cucumber.") || key.matches("[A-Z0-9_]+")) {
+                command.add("-D" + key + "=" + v);
+            }
+        });
+        command.add("-Dshard.index=" + index);
+        command.add("-Dshard.total=" + total);
+        command.add(ShardRunner.class.getName());
+
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log(index).toFile())
+                .start();
+    }
+
+    private static Path log(int index) {
+        return OUT_DIR.resolve("shard-" + index + ".log");
+    }
+}
@@ -0,0 +1,63 @@
+package runners;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distribui cenários por N shards para que todos acabem mais ou menos ao mesmo tempo.
+ *
+ * Greedy LPT: ordena pelo tempo estimado (maior primeiro) e entrega cada cenário ao
+ * shard com menos carga. Cenários sem histórico recebem a mediana dos conhecidos
+ * (ou DEFAULT_ESTIMATE_MS se ainda não houver histórico nenhum).
+ * O resultado é determinístico: todos os forks calculam o mesmo plano.
+ */
+public class ShardPlanner {
+
+    static final long DEFAULT_ESTIMATE_MS = 30_000;
+
+    public record Shard(List<String> scenarios, long estimatedMillis) {
+    }
+
+    private ShardPlanner() {
+    }
+
+    public static List<Shard> plan(List<String> scenarios, Map<String, Long> history, int shards) {
+        long fallback = defaultEstimate(scenarios, history);
+
+        List<String> ordered = new ArrayList<>(scenarios);
+        ordered.sort(Comparator.<String>comparingLong(s -> history.getOrDefault(s, fallback)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        List<List<String>> buckets = new ArrayList<>();
+        long[] load = new long[shards];
+        for (int i = 0; i < shards; i++) {
+            buckets.add(new ArrayList<>());
+        }
+
+        for (String scenario : ordered) {
+            int lightest = 0;
+            for (int i = 1; i < shards; i++) {
+                if (load[i] < load[lightest]) lightest = i;
+            }
+            buckets.get(lightest).add(scenario);
+            load[lightest] += history.getOrDefault(scenario, fallback);
+        }
+
+        List<Shard> plan = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            plan.add(new Shard(buckets.get(i), load[i]));
+        }
+        return plan;
+    }
+
+    private static long defaultEstimate(List<String> scenarios, Map<String, Long> history) {
+        List<Long> known = scenarios.stream()
+                .map(history::get)
+                .filter(ms -> ms != null && ms > 0)
+                .sorted()
+                .toList();
+        return known.isEmpty() ? DEFAULT_ESTIMATE_MS : known.get(known.size() / 2);
+    }
+}
@@ -0,0 +1,50 @@
+package runners;
+
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import utils.ConfigReader;
+
+import java.io.PrintWriter;
+
+import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.PLUGIN_PROPERTY_NAME;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClasspathResource;
+import static org.junit.platform.launcher.EngineFilter.includeEngines;
+import static org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder.request;
+
+/**
+ * JVM de um shard do modo -Psharded (lançada pelo {@link ShardLauncher} com shard.index e
+ * shard.total): corre as features no Cucumber JUnit Platform engine, como o TestRunner, e o
+ * {@link ShardingSessionListener} restringe-as aos cenários deste shard.
+ */
+public class ShardRunner {
+
+    private static final String OUTLINE_BATCH_LOCK = "cucumber.execution.exclusive-resources.batch.read-write";
+
+    public static void main(String[] args) {
+        String index = System.getProperty("shard.index", "1");
+
+        LauncherDiscoveryRequestBuilder builder = request()
+                .selectors(selectClasspathResource("features"))
+                .filters(includeEngines("cucumber"))
+                .configurationParameter(GLUE_PROPERTY_NAME, "stepdefinitions,utils")
+                .configurationParameter(PLUGIN_PROPERTY_NAME, "pretty, html:target/shards/shard-" + index + ".html, "
+                        + "json:target/shards/shard-" + index + ".json, utils.BrowserBootstrap, utils.ScenarioDurations");
+        // mesmo lock que o profile outline-batch dá ao surefire
+        if (ConfigReader.getBoolean("OUTLINE_BATCH", false)) {
+            builder.configurationParameter(OUTLINE_BATCH_LOCK, "outline-batch");
+        }
+        LauncherDiscoveryRequest discovery = builder.build();
+
+        SummaryGeneratingListener summary = new SummaryGeneratingListener();
+        try (LauncherSession session = LauncherFactory.openSession()) {
+            session.getLauncher().execute(discovery, summary);
+        }
+        summary.getSummary().printTo(new PrintWriter(System.out, true));
+        summary.getSummary().printFailuresTo(new PrintWriter(System.out, true), 20);
+        System.exit(summary.getSummary().getTotalFailureCount() == 0 ? 0 : 1);
+    }
+}
@@ -0,0 +1,58 @@
+package runners;
+
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+import utils.ScenarioDurations;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Modo sharded (mvn test -Psharded -Dshards=N): antes da descoberta dos testes,
+ * cada JVM de shard ({@link ShardRunner}) calcula o mesmo plano de shards (ver {@link ShardPlanner})
+ * e restringe o Cucumber aos seus cenários através de cucumber.features.
+ *
+ * Sem shard.total/shard.index definidos não faz nada.
+ */
+public class ShardingSessionListener implements LauncherSessionListener {
+
+    @Override
+    public void launcherSessionOpened(LauncherSession session) {
+        String total = System.getProperty("shard.total");
+        String index = System.getProperty("shard.index");
+        if (total == null || index == null || total.isBlank() || index.isBlank()) return;
+
+        int shards = Integer.parseInt(total.trim());
+        int shard = Integer.parseInt(index.trim()) - 1; // shard.index começa em 1
+        if (shards < 2) return;
+
+        List<String> scenarios = FeatureScenarios.discover(System.getProperty("cucumber.filter.tags", defaultTags()));
+        ShardPlanner.Shard mine = ShardPlanner.plan(scenarios, ScenarioDurations.load(), shards).get(shard);
+
+        System.out.printf("[Shard %d/%d] %d of %d scenarios, estimated %d s%n",
+                shard + 1, shards, mine.scenarios().size(), scenarios.size(), mine.estimatedMillis() / 1000);
+
+        if (mine.scenarios().isEmpty()) {
+            // mais shards do que cenários: este shard não corre nada
+            System.setProperty("cucumber.filter.name", "(?!)");
+            return;
+        }
+        System.setProperty("cucumber.features", mine.scenarios().stream()
+                .map(key -> "classpath:" + key)
+                .collect(Collectors.joining(",")));
+    }
+
+    /** Mesmo filtro por omissão que o TestRunner (junit-platform.properties). */
+    private static String defaultTags() {
+        Properties props = new Properties();
+        try (InputStream in = ShardingSessionListener.class.getClassLoader().getResourceAsStream("junit-platform.properties")) {
+            if (in != null) props.load(in);
+        } catch (IOException ignore) {
+            // sem ficheiro: sem filtro
+        }
+        return props.getProperty("cucumber.filter.tags");
+    }
+}
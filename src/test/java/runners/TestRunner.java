@@ -0,0 +1,30 @@
+package runners;
+
+import org.junit.platform.suite.api.ConfigurationParameter;
+import org.junit.platform.suite.api.IncludeEngines;
+import org.junit.platform.suite.api.SelectClasspathResource;
+import org.junit.platform.suite.api.Suite;
+
+import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.PLUGIN_PROPERTY_NAME;
+
+/**
+ * Corre as features no Cucumber JUnit Platform engine, em paralelo.
+ *
+ * Paralelismo, tags, etc. estão em src/test/resources/junit-platform.properties
+ * e podem ser mudados em runtime:
+ *   mvn test -Dworkers=6
+ *   mvn test -Dcucumber.filter.tags="@transfer_own_account or @registo"
+ * Com TEST_USER_POOL=false corre num só worker (ver ScenarioParallelism).
+ *
+ * Cada cenário (e cada linha de Examples de um Scenario Outline) é um teste
+ * independente. Os plugins de relatório recebem os eventos por ordem canónica,
+ * por isso os ficheiros em target/ não ficam misturados entre workers.
+ */
+@Suite
+@IncludeEngines("cucumber")
+@SelectClasspathResource("features")
+@ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "stepdefinitions,utils")
+@ConfigurationParameter(key = PLUGIN_PROPERTY_NAME, value = "pretty, html:target/cucumber-reports.html, json:target/cucumber.json, timeline:target/cucumber-timeline, utils.BrowserBootstrap, utils.ScenarioDurations")
+public class TestRunner {
+}
@@ -34,11 +34,8 @@ public class DeleteAccountSteps {
         username = dotenv.get("USER_DELETE", dotenv.get("USER"));
         password = dotenv.get("PASSWORD_DELETE", dotenv.get("PASSWORD"));
 
-        // Login
-        loginPage.clickGetStarted();
-        loginPage.enterUsername(username);
-        loginPage.enterPassword(password);
-        loginPage.clickLoginButton();
+        // Login (API + sessão injetada)
+        loginPage.loginFast(username, password);
 
         // Ir para Settings
         accountsPage.waitLoaded();
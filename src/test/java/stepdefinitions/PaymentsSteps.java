@@ -1,5 +1,7 @@
 package stepdefinitions;
 
+import api.ApiVerifier;
+import api.TestUserPool;
 import io.cucumber.java.en.*;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.junit.Assert;
@@ -10,6 +12,7 @@ import pages.PaymentsPage;
 import pages.TransactionsPage;
 import utils.Hooks;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.util.Map;
@@ -26,18 +29,36 @@ public class PaymentsSteps {
     private String selectedAccount;
     private String selectedCategory;
 
+    // VERIFY_MODE=api: transação verificada pela API em vez do DOM
+    private ApiVerifier verifier;
+
     // ============================================================
     // LOGIN + IR PARA PAYMENTS
     // ============================================================
     @Given("login and access payments page")
-    public void login_and_access_payments_page() {
+    public void login_and_access_payments_page() throws IOException, InterruptedException {
         driver = Hooks.getDriver();
         loginPage = new LoginPage(driver);
         accountsPage = new AccountsPage(driver);
         paymentsPage = new PaymentsPage(driver);
+        transactionsPage = new TransactionsPage(driver);
+
+        // na continuação de uma outline @batch a lease vem com o browser: é a mesma conta
+        TestUserPool.TestUser user = TestUserPool.forScenario();
+
+        // cada linha tem o seu snapshot, também nas continuações (senão verificava pelo DOM)
+        if (ApiVerifier.isEnabled()) {
+            verifier = ApiVerifier.forUser(user.email(), user.password());
+            verifier.snapshotTransactions();
+        }
 
-        loginPage.loginUsingEnvCredentials();
+        // OUTLINE_BATCH: linha seguinte da mesma outline, no mesmo browser já autenticado
+        if (Hooks.isBatchContinuation()) {
+            paymentsPage.resetToForm();
+            return;
+        }
 
+        loginPage.loginFast(user.email(), user.password());
         accountsPage.clickPaymentsNav();
         paymentsPage.waitLoaded();
     }
@@ -105,12 +126,13 @@ public class PaymentsSteps {
     // VERIFICAR NOVA TRANSAÇÃO
     // ============================================================
     @Then("Verify new transaction appears with {string} category and {int} amount")
-    public void verify_new_transaction(String category, Integer amount) {
+    public void verify_new_transaction(String category, Integer amount) throws IOException, InterruptedException {
 
         String expectedAmount = "-" + new BigDecimal(amount).toPlainString() + "€";
 
-        boolean found =
-                transactionsPage.waitUntilTransactionAmountAndCategoryAppear(
+        boolean found = verifier != null
+                ? verifier.awaitNewTransaction(new BigDecimal(amount), category, Duration.ofSeconds(20))
+                : transactionsPage.waitUntilTransactionAmountAndCategoryAppear(
                         expectedAmount,
                         category,
                         Duration.ofSeconds(20)
@@ -1,9 +1,9 @@
 
 package stepdefinitions;
 
+import api.CreatedUsers;
 import io.cucumber.java.en.And;
 import io.cucumber.java.en.Then;
-import io.github.cdimascio.dotenv.Dotenv;
 import io.cucumber.java.Before;
 import org.junit.Assert;
 import org.openqa.selenium.By;
@@ -15,6 +15,7 @@ import org.openqa.selenium.support.ui.ExpectedConditions;
 import pages.LoginPage;
 import pages.RegisterPage;
 import utils.Hooks;
+import utils.IdentityGenerator;
 
 import java.time.Instant;
 
@@ -24,17 +25,8 @@ public class RegisterSteps {
     private LoginPage loginPage;
 
 
-    private final Dotenv dotenv = Dotenv.load();
-    private final String firstName = dotenv.get("name");
-    private final String lastName = dotenv.get("surname");
-    private final String email = dotenv.get("USER");
-    private final String phone = dotenv.get("phone_number");
-    private final String street = dotenv.get("street_address");
-    private final String postalCode = dotenv.get("postal_code");
-    private final String city = dotenv.get("city");
-    private final String country = dotenv.get("countryTEXT");
-    private final String password = dotenv.get("PASSWORD");
-    private final String confirmPass = dotenv.get("confirmPassword");
+    // identidade nova em cada cenário: o registo segue sempre o caminho de sucesso
+    private IdentityGenerator.Identity identity;
 
 
     @Before(order = 1)
@@ -55,18 +47,19 @@ public class RegisterSteps {
     @When("I enter valid registration details")
     public void i_enter_valid_registration_details() {
 
+        identity = IdentityGenerator.next();
         registerPage.fillRegistrationForm(
 
-                firstName,
-                lastName,
-                email,
-                phone,
-                street,
-                postalCode,
-                city,
-                country,
-                password,
-                confirmPass
+                identity.firstName(),
+                identity.lastName(),
+                identity.email(),
+                identity.phone(),
+                identity.street(),
+                identity.postalCode(),
+                identity.city(),
+                identity.country(),
+                identity.password(),
+                identity.password()
         );
 
     }
@@ -81,6 +74,8 @@ public class RegisterSteps {
         registerPage.submit();
 
         if (registerPage.isSuccessMessageVisible()) {
+            // conta nova desta execução: apagada pela API no fim (CreatedUsers)
+            CreatedUsers.record(identity.email(), identity.password());
             return;
         }
 
@@ -1,17 +1,25 @@
 package stepdefinitions;
 
+import api.AccountsApi;
+import api.ApiVerifier;
+import api.TestUserPool;
 import io.cucumber.java.en.*;
-import io.github.cdimascio.dotenv.Dotenv;
 import org.junit.Assert;
 import org.openqa.selenium.WebDriver;
 import pages.*;
+import utils.ConfigReader;
 import utils.Hooks;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.List;
 
 public class TransferSteps {
 
+    // saldos que os cenários verificam: o top-up nunca tira dinheiro daqui
+    private static final List<String> ASSERTED_ACCOUNTS = List.of("Checking", "Savings");
+
     private WebDriver driver;
     private LoginPage loginPage;
     private AccountsPage accountsPage;
@@ -23,25 +31,33 @@ public class TransferSteps {
     private BigDecimal beforeSavings;
     private BigDecimal requestedAmount;
 
+    // VERIFY_MODE=api: saldos/transações verificados pela API em vez do DOM
+    private ApiVerifier verifier;
+
     @Given("login and access transfer page")
-    public void login_and_access_transfer_page() {
+    public void login_and_access_transfer_page() throws IOException, InterruptedException {
         driver = Hooks.getDriver();
         loginPage = new LoginPage(driver);
         accountsPage = new AccountsPage(driver);
         transferPage = new TransferPage(driver);
 
-        // ---credentials ---
-        Dotenv dotenv = Dotenv.load();
-        String username = dotenv.get("USER");
-        String password = dotenv.get("PASSWORD");
+        // ---credentials --- (conta exclusiva do cenário com TEST_USER_POOL=true, senão o USER do .env)
+        TestUserPool.TestUser user = TestUserPool.forScenario();
 
-        // Login flow
-        loginPage.loginUsingEnvCredentials();
+        // Login flow (API + sessão injetada; a UI de login só é testada no LogIn.feature)
+        loginPage.loginFast(user.email(), user.password());
 
         // --- Accounts: capture balances BEFORE transfer ---
         accountsPage.waitLoaded();
-        beforeChecking = accountsPage.getBalance("Checking");
-        beforeSavings  = accountsPage.getBalance("Savings");
+        if (ApiVerifier.isEnabled()) {
+            verifier = ApiVerifier.forUser(user.email(), user.password());
+            beforeChecking = verifier.balance("Checking");
+            beforeSavings  = verifier.balance("Savings");
+            verifier.snapshotTransactions();
+        } else {
+            beforeChecking = accountsPage.getBalance("Checking");
+            beforeSavings  = accountsPage.getBalance("Savings");
+        }
         Assert.assertNotNull("Checking balance is null", beforeChecking);
         Assert.assertNotNull("Savings balance is null", beforeSavings);
 
@@ -50,6 +66,28 @@ public class TransferSteps {
         transferPage.waitLoaded();
     }
 
+    /**
+     * Pré-condição de saldo para os cenários de 1000€. Com o pool de contas o saldo base já vem
+     * do TestUserPool (TEST_USER_MIN_BALANCE); o top-up pela API só corre com TRANSFER_TOPUP=true
+     * (os endpoints são configuráveis e podem não existir na app). Mesmo assim nunca tira dinheiro
+     * das contas que o cenário verifica: o que faltar vem das outras contas ou de depósito.
+     * Sem top-up, o passo de login verifica pelo saldo da página que o montante cabe na Checking.
+     */
+    @Given("{string} account has at least {int} available")
+    public void account_has_at_least_available(String account, Integer amount) {
+        if (!ConfigReader.getBoolean("TRANSFER_TOPUP", false)) return;
+
+        TestUserPool.TestUser user = TestUserPool.forScenario();
+        try {
+            AccountsApi.ensureBalance(user.email(), user.password(), account, new BigDecimal(amount), ASSERTED_ACCOUNTS);
+        } catch (IOException e) {
+            Assert.fail("Balance precondition failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Assert.fail("Interrupted while checking balances");
+        }
+    }
+
     @When("I select transfer to own account")
 
     public void i_select_transfer_to_own_account() {
@@ -140,9 +178,11 @@ public class TransferSteps {
     }
 
     @Then("Verify {string} account balance decreased")
-    public void verify_account_balance_decreased(String accountName) {
-        BigDecimal afterChecking = accountsPage.getBalance("Checking");
+    public void verify_account_balance_decreased(String accountName) throws IOException, InterruptedException {
         BigDecimal expected = beforeChecking.subtract(requestedAmount);
+        BigDecimal afterChecking = verifier != null
+                ? verifier.awaitBalance("Checking", expected, Duration.ofSeconds(20))
+                : accountsPage.getBalance("Checking");
 
         Assert.assertEquals(
                 "Checking balance did not decrease correctly",
@@ -160,31 +200,40 @@ public class TransferSteps {
 
 
     @Then("Verify new transaction with {string} appears on the list")
-    public void verify_new_transaction_appears(String text) {
+    public void verify_new_transaction_appears(String text) throws IOException, InterruptedException {
 
-        boolean ok = transactionsPage
-                .waitUntilTransactionAmountAppears(text, Duration.ofSeconds(12));
+        boolean ok = verifier != null
+                ? verifier.awaitNewTransaction(AccountsApi.toAmount(text), null, Duration.ofSeconds(12))
+                : transactionsPage.waitUntilTransactionAmountAppears(text, Duration.ofSeconds(12));
         Assert.assertTrue("Transaction not found: " + text, ok);
 
     }
 
 
     @Then("verify {string} account balance increased")
-    public void verify_account_balance_increased(String accountName) {
-
-        BigDecimal afterChecking = accountsPage.getBalance("Checking");
+    public void verify_account_balance_increased(String accountName) throws IOException, InterruptedException {
 
         BigDecimal expectedChecking = beforeChecking.subtract(requestedAmount);
 
 // Compute the expected value
         BigDecimal expectedSavings = beforeSavings.add(requestedAmount);
 
-        // Wait/poll until the UI reflects the updated balance
-        BigDecimal afterSavings = new org.openqa.selenium.support.ui.WebDriverWait(driver, java.time.Duration.ofSeconds(20))
-                .until(d -> {
-                    BigDecimal current = accountsPage.getBalance(accountName);
-                    return expectedSavings.compareTo(current) == 0 ? current : null;
-                });
+        BigDecimal afterChecking;
+        BigDecimal afterSavings;
+        if (verifier != null) {
+            // API: polling curto com GET condicional, sem passar pelo DOM
+            afterSavings = verifier.awaitBalance(accountName, expectedSavings, Duration.ofSeconds(20));
+            afterChecking = verifier.balance("Checking");
+        } else {
+            afterChecking = accountsPage.getBalance("Checking");
+
+            // Wait/poll until the UI reflects the updated balance
+            afterSavings = new org.openqa.selenium.support.ui.WebDriverWait(driver, java.time.Duration.ofSeconds(20))
+                    .until(d -> {
+                        BigDecimal current = accountsPage.getBalance(accountName);
+                        return expectedSavings.compareTo(current) == 0 ? current : null;
+                    });
+        }
 
 
         org.junit.Assert.assertEquals(
@@ -1,5 +1,6 @@
 @registo
   Feature:  Multiple Payments
+@batch
 Scenario Outline: Make multiple payments
 Given login and access payments page
 When I make a payment from "<ACCOUNT>" with reference "<REFERENCE>", entity "<ENTITY>", amount <AMOUNT> and category "<CATEGORY>"
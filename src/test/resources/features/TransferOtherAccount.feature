@@ -2,7 +2,8 @@
 Feature: Transfer to other account
 
   Background:
-    Given login and access transfer page
+    Given "Checking" account has at least 1000 available
+    And login and access transfer page
 
   Scenario: Make a transfer to another account
     When I select transfer to other account
@@ -2,7 +2,8 @@
 Feature: Transfer to own account
 
   Background:
-    Given login and access transfer page
+    Given "Checking" account has at least 1000 available
+    And login and access transfer page
 
   Scenario: Make a transfer from checking to savings
     When I select transfer to own account